@@ -10,6 +10,9 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * <p>
  * The {@link SpringBootApplication} annotation enables auto-configuration,
  * component scanning, and configuration for a Spring Boot application.
+ * <p>
+ * Started with {@code virtual-threads.enabled=true} on Java 21 or newer, the application handles requests
+ * and runs database work on virtual threads, see {@link com.jpacourse.config.VirtualThreadConfiguration}.
  */
 @SpringBootApplication
 public class WsbJpaApplication {
@@ -0,0 +1,42 @@
+package com.jpacourse.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Configuration of the binary encodings every REST endpoint can answer with besides JSON.
+ * <p>
+ * A client sending {@code Accept: application/cbor} or {@code Accept: application/x-jackson-smile} receives the same
+ * data in CBOR or Smile, which is smaller and cheaper to parse than JSON text. Both converters use the object mapper
+ * settings of the JSON converter, so dates and enums are written the same way in every encoding.
+ */
+@Configuration
+public class BinaryEncodingConfiguration {
+
+    /**
+     * Creates the converter reading and writing {@code application/cbor}.
+     *
+     * @param builder a fresh object mapper builder configured by Spring Boot
+     * @return the CBOR message converter
+     */
+    @Bean
+    MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Creates the converter reading and writing {@code application/x-jackson-smile}.
+     *
+     * @param builder a fresh object mapper builder configured by Spring Boot
+     * @return the Smile message converter
+     */
+    @Bean
+    MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+}
@@ -0,0 +1,36 @@
+package com.jpacourse.config;
+
+import org.hibernate.boot.internal.MetadataImpl;
+import org.hibernate.boot.internal.SessionFactoryBuilderImpl;
+import org.hibernate.boot.internal.SessionFactoryOptionsBuilder;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.boot.spi.SessionFactoryBuilderImplementor;
+import org.hibernate.boot.spi.SessionFactoryBuilderService;
+import org.hibernate.service.spi.ServiceContributor;
+
+/**
+ * Keeps the collections of bytecode-enhanced entities in the default fetch group.
+ * <p>
+ * By default, Hibernate 5.4 treats every collection of an entity enhanced for lazy initialization as a lazy attribute:
+ * its wrapper is only created by the first call to the getter, which then initializes it right away, one owner at a
+ * time. In the default fetch group, the uninitialized wrapper is set when the owner is loaded, as with unenhanced
+ * entities, so calling the getter does not load the collection and {@code @BatchSize} initializes the collections of
+ * several owners at once. Hibernate 5.4 offers no setting for this, so the contributor replaces the service creating
+ * the {@code SessionFactoryBuilder}. It is registered in {@code META-INF/services}.
+ */
+public class EnhancedCollectionsServiceContributor implements ServiceContributor, SessionFactoryBuilderService {
+
+    @Override
+    public void contribute(StandardServiceRegistryBuilder serviceRegistryBuilder) {
+        serviceRegistryBuilder.addService(SessionFactoryBuilderService.class, this);
+    }
+
+    @Override
+    public SessionFactoryBuilderImplementor createSessionFactoryBuilder(MetadataImpl metadata, BootstrapContext bootstrapContext) {
+        SessionFactoryOptionsBuilder options = new SessionFactoryOptionsBuilder(
+                metadata.getMetadataBuildingOptions().getServiceRegistry(), bootstrapContext);
+        options.enableCollectionInDefaultFetchGroup(true);
+        return new SessionFactoryBuilderImpl(metadata, options);
+    }
+}
@@ -0,0 +1,38 @@
+package com.jpacourse.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Configuration of the opt-in virtual thread mode, enabled with {@code virtual-threads.enabled=true}.
+ * <p>
+ * Tomcat then handles every request on a new virtual thread instead of a thread of its bounded pool,
+ * so slow clients only cost a small heap object each. The {@link com.jpacourse.rest.async.DatabaseExecutor}
+ * switches to virtual threads as well, keeping its bound of one thread per pooled connection.
+ * Pinned virtual threads are traced as configured by {@code virtual-threads.trace-pinning}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    /**
+     * Replaces the request thread pool of Tomcat with an executor starting a virtual thread per request.
+     *
+     * @param tracePinning the pinning trace mode passed to {@link VirtualThreads#tracePinnedThreads(String)}
+     * @return the customizer of the Tomcat protocol handler
+     * @throws IllegalStateException if the running JVM does not support virtual threads
+     */
+    @Bean
+    TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer(
+            @Value("${virtual-threads.trace-pinning:short}") String tracePinning) {
+        VirtualThreads.tracePinnedThreads(tracePinning);
+        final ExecutorService executor = VirtualThreads.newThreadPerTaskExecutor("http-vt-");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+}
@@ -0,0 +1,87 @@
+package com.jpacourse.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Utility class creating virtual threads when the application runs on Java 21 or newer.
+ * The application is compiled for Java 11, so the virtual thread API is called reflectively.
+ */
+public final class VirtualThreads {
+
+    private static final String TRACE_PINNED_THREADS = "jdk.tracePinnedThreads";
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * Tells whether the running JVM supports virtual threads.
+     *
+     * @return {@code true} on Java 21 or newer
+     */
+    public static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a factory of virtual threads named with the given prefix and a counter.
+     *
+     * @param namePrefix the prefix of the thread names
+     * @return the thread factory
+     * @throws IllegalStateException if the running JVM does not support virtual threads
+     */
+    public static ThreadFactory threadFactory(String namePrefix) {
+        try {
+            final Class<?> builderType = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw unsupported(e);
+        }
+    }
+
+    /**
+     * Creates an executor starting a new virtual thread for every task.
+     *
+     * @param namePrefix the prefix of the thread names
+     * @return the executor
+     * @throws IllegalStateException if the running JVM does not support virtual threads
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        try {
+            final Method factoryMethod = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) factoryMethod.invoke(null, threadFactory(namePrefix));
+        } catch (ReflectiveOperationException e) {
+            throw unsupported(e);
+        }
+    }
+
+    /**
+     * Makes the JVM print the stack of every virtual thread that blocks while pinned to its carrier thread,
+     * e.g. inside a {@code synchronized} block of the JDBC driver or Hibernate. A mode given on the command line
+     * with {@code -Djdk.tracePinnedThreads} takes precedence.
+     * <p>
+     * The JVM reads the setting when the first virtual thread is created, so this must be called before that.
+     *
+     * @param mode {@code short} or {@code full} to print the pinning frames or the whole stack, or an empty string
+     *             to leave tracing off
+     */
+    public static void tracePinnedThreads(String mode) {
+        if (!mode.isEmpty() && System.getProperty(TRACE_PINNED_THREADS) == null) {
+            System.setProperty(TRACE_PINNED_THREADS, mode);
+        }
+    }
+
+    private static IllegalStateException unsupported(ReflectiveOperationException cause) {
+        return new IllegalStateException("Virtual threads require Java 21 or newer, running on Java "
+                + System.getProperty("java.specification.version"), cause);
+    }
+}
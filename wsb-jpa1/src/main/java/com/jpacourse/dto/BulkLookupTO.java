@@ -0,0 +1,33 @@
+package com.jpacourse.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Transfer Object (TO) class that represents the result of looking up several entities by ID at once.
+ * It contains the found items in the order of the requested IDs and the IDs for which nothing was found.
+ *
+ * @param <T> the type of the found items
+ */
+public class BulkLookupTO<T extends Serializable> implements Serializable {
+    private List<T> found = new ArrayList<>();
+
+    private List<Long> missingIds = new ArrayList<>();
+
+    public List<T> getFound() {
+        return found;
+    }
+
+    public void setFound(List<T> found) {
+        this.found = found;
+    }
+
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+
+    public void setMissingIds(List<Long> missingIds) {
+        this.missingIds = missingIds;
+    }
+}
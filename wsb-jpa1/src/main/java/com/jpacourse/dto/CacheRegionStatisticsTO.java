@@ -0,0 +1,69 @@
+package com.jpacourse.dto;
+
+import java.io.Serializable;
+
+/**
+ * Transfer Object (TO) class that represents the statistics of a single second-level cache region.
+ * It contains the hit, miss, put and eviction counters together with the number of cached entries.
+ */
+public class CacheRegionStatisticsTO implements Serializable {
+    private String regionName;
+
+    private long hitCount;
+
+    private long missCount;
+
+    private long putCount;
+
+    private long evictionCount;
+
+    private long elementCountInMemory;
+
+    public String getRegionName() {
+        return regionName;
+    }
+
+    public void setRegionName(String regionName) {
+        this.regionName = regionName;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public void setHitCount(long hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public void setMissCount(long missCount) {
+        this.missCount = missCount;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    public void setPutCount(long putCount) {
+        this.putCount = putCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public void setEvictionCount(long evictionCount) {
+        this.evictionCount = evictionCount;
+    }
+
+    public long getElementCountInMemory() {
+        return elementCountInMemory;
+    }
+
+    public void setElementCountInMemory(long elementCountInMemory) {
+        this.elementCountInMemory = elementCountInMemory;
+    }
+}
@@ -0,0 +1,89 @@
+package com.jpacourse.dto;
+
+import java.io.Serializable;
+
+/**
+ * Transfer Object (TO) class that represents the statistics of the executor running database work for async controllers.
+ * It contains the pool and queue sizes, the completed and rejected task counters and the time tasks waited in the queue.
+ */
+public class DatabaseExecutorStatisticsTO implements Serializable {
+    private int poolSize;
+
+    private int activeCount;
+
+    private int queueDepth;
+
+    private int queueCapacity;
+
+    private long completedTaskCount;
+
+    private long rejectedTaskCount;
+
+    private double averageQueueWaitMillis;
+
+    private double maxQueueWaitMillis;
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    public void setPoolSize(int poolSize) {
+        this.poolSize = poolSize;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public void setActiveCount(int activeCount) {
+        this.activeCount = activeCount;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public void setQueueDepth(int queueDepth) {
+        this.queueDepth = queueDepth;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getCompletedTaskCount() {
+        return completedTaskCount;
+    }
+
+    public void setCompletedTaskCount(long completedTaskCount) {
+        this.completedTaskCount = completedTaskCount;
+    }
+
+    public long getRejectedTaskCount() {
+        return rejectedTaskCount;
+    }
+
+    public void setRejectedTaskCount(long rejectedTaskCount) {
+        this.rejectedTaskCount = rejectedTaskCount;
+    }
+
+    public double getAverageQueueWaitMillis() {
+        return averageQueueWaitMillis;
+    }
+
+    public void setAverageQueueWaitMillis(double averageQueueWaitMillis) {
+        this.averageQueueWaitMillis = averageQueueWaitMillis;
+    }
+
+    public double getMaxQueueWaitMillis() {
+        return maxQueueWaitMillis;
+    }
+
+    public void setMaxQueueWaitMillis(double maxQueueWaitMillis) {
+        this.maxQueueWaitMillis = maxQueueWaitMillis;
+    }
+}
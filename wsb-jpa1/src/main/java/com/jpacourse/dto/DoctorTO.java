@@ -0,0 +1,81 @@
+package com.jpacourse.dto;
+
+import com.jpacourse.persistence.enums.Specialization;
+
+import java.io.Serializable;
+
+/**
+ * Transfer Object (TO) class that represents a doctor as shown alongside a visit.
+ * It contains the doctor's name, number and specialization, without the doctor's address or visits.
+ */
+public class DoctorTO implements Serializable {
+    private Long id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String doctorNumber;
+
+    private Specialization specialization;
+
+    public DoctorTO() {
+    }
+
+    /**
+     * Creates a doctor TO from the selected columns, e.g. in a JPQL constructor expression.
+     *
+     * @param id             the ID of the doctor
+     * @param firstName      the first name of the doctor
+     * @param lastName       the last name of the doctor
+     * @param doctorNumber   the doctor's number
+     * @param specialization the specialization of the doctor
+     */
+    public DoctorTO(Long id, String firstName, String lastName, String doctorNumber, Specialization specialization) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.doctorNumber = doctorNumber;
+        this.specialization = specialization;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getDoctorNumber() {
+        return doctorNumber;
+    }
+
+    public void setDoctorNumber(String doctorNumber) {
+        this.doctorNumber = doctorNumber;
+    }
+
+    public Specialization getSpecialization() {
+        return specialization;
+    }
+
+    public void setSpecialization(Specialization specialization) {
+        this.specialization = specialization;
+    }
+}
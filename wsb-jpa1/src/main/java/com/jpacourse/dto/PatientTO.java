@@ -1,10 +1,8 @@
 package com.jpacourse.dto;
 
-import com.jpacourse.persistence.entity.AddressEntity;
-import com.jpacourse.persistence.entity.VisitEntity;
-
 import java.io.Serializable;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -20,10 +18,53 @@ public class PatientTO implements Serializable {
     private String email;
     private String patientNumber;
     private LocalDate dateOfBirth;
-    private AddressEntity address;
-    private List<VisitEntity> visits;
+    private AddressTO address;
+    private List<VisitTO> visits = new ArrayList<>();
     private char gender;
 
+    public PatientTO() {
+    }
+
+    /**
+     * Creates a patient TO from the columns selected by a JPQL constructor expression.
+     * The address TO is built from its own columns and left {@code null} if the patient has no address;
+     * the visits are read by a separate projection.
+     *
+     * @param id              the ID of the patient
+     * @param firstName       the first name of the patient
+     * @param lastName        the last name of the patient
+     * @param telephoneNumber the telephone number of the patient
+     * @param email           the email address of the patient
+     * @param patientNumber   the patient's number
+     * @param dateOfBirth     the date of birth of the patient
+     * @param gender          the gender of the patient
+     * @param addressId       the ID of the address, or {@code null} if there is none
+     * @param city            the city of the address
+     * @param addressLine1    the first line of the address
+     * @param addressLine2    the second line of the address
+     * @param postalCode      the postal code of the address
+     */
+    public PatientTO(Long id, String firstName, String lastName, String telephoneNumber, String email,
+                     String patientNumber, LocalDate dateOfBirth, char gender,
+                     Long addressId, String city, String addressLine1, String addressLine2, String postalCode) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.telephoneNumber = telephoneNumber;
+        this.email = email;
+        this.patientNumber = patientNumber;
+        this.dateOfBirth = dateOfBirth;
+        this.gender = gender;
+        if (addressId != null) {
+            address = new AddressTO();
+            address.setId(addressId);
+            address.setCity(city);
+            address.setAddressLine1(addressLine1);
+            address.setAddressLine2(addressLine2);
+            address.setPostalCode(postalCode);
+        }
+    }
+
     public Long getId() {
         return id;
     }
@@ -80,19 +121,19 @@ public class PatientTO implements Serializable {
         this.dateOfBirth = dateOfBirth;
     }
 
-    public AddressEntity getAddress() {
+    public AddressTO getAddress() {
         return address;
     }
 
-    public void setAddress(AddressEntity address) {
+    public void setAddress(AddressTO address) {
         this.address = address;
     }
 
-    public List<VisitEntity> getVisits() {
+    public List<VisitTO> getVisits() {
         return visits;
     }
 
-    public void setVisits(List<VisitEntity> visits) {
+    public void setVisits(List<VisitTO> visits) {
         this.visits = visits;
     }
 
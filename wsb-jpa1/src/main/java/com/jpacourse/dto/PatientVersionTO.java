@@ -0,0 +1,56 @@
+package com.jpacourse.dto;
+
+import java.io.Serializable;
+
+/**
+ * Transfer Object (TO) class that represents the version state of a patient.
+ * It contains the patient's optimistic-locking version and the revision counting writes to the visits, address,
+ * doctors and treatments shown with the patient, which do not increment the version.
+ */
+public class PatientVersionTO implements Serializable {
+    private Long id;
+
+    private Long version;
+
+    private Long revision;
+
+    public PatientVersionTO() {
+    }
+
+    /**
+     * Creates a patient version TO from the selected columns, e.g. in a JPQL constructor expression.
+     *
+     * @param id       the ID of the patient
+     * @param version  the version of the patient
+     * @param revision the revision of the patient's visits, address, doctors and treatments
+     */
+    public PatientVersionTO(Long id, Long version, Long revision) {
+        this.id = id;
+        this.version = version;
+        this.revision = revision;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getRevision() {
+        return revision;
+    }
+
+    public void setRevision(Long revision) {
+        this.revision = revision;
+    }
+}
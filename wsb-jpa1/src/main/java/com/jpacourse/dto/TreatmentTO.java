@@ -0,0 +1,57 @@
+package com.jpacourse.dto;
+
+import com.jpacourse.persistence.enums.TreatmentType;
+
+import java.io.Serializable;
+
+/**
+ * Transfer Object (TO) class that represents a medical treatment given during a visit.
+ * It contains the treatment description and type.
+ */
+public class TreatmentTO implements Serializable {
+    private Long id;
+
+    private String description;
+
+    private TreatmentType type;
+
+    public TreatmentTO() {
+    }
+
+    /**
+     * Creates a treatment TO from the selected columns, e.g. in a JPQL constructor expression.
+     *
+     * @param id          the ID of the treatment
+     * @param description the description of the treatment
+     * @param type        the type of the treatment
+     */
+    public TreatmentTO(Long id, String description, TreatmentType type) {
+        this.id = id;
+        this.description = description;
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public TreatmentType getType() {
+        return type;
+    }
+
+    public void setType(TreatmentType type) {
+        this.type = type;
+    }
+}
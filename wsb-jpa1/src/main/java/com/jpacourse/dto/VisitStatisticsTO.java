@@ -0,0 +1,70 @@
+package com.jpacourse.dto;
+
+import com.jpacourse.persistence.enums.StatisticsDimension;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Transfer Object (TO) class that represents one visit statistics bucket.
+ * It contains the number of visits of one doctor, specialization or treatment type in one month.
+ */
+public class VisitStatisticsTO implements Serializable {
+    private StatisticsDimension dimension;
+
+    private String dimensionKey;
+
+    private LocalDate monthStart;
+
+    private long visitCount;
+
+    public VisitStatisticsTO() {
+    }
+
+    /**
+     * Creates a statistics TO from the selected columns, e.g. in a JPQL constructor expression.
+     *
+     * @param dimension    the dimension counted by the bucket
+     * @param dimensionKey the doctor ID, specialization or treatment type counted by the bucket
+     * @param monthStart   the first day of the month of the bucket
+     * @param visitCount   the number of visits in the bucket
+     */
+    public VisitStatisticsTO(StatisticsDimension dimension, String dimensionKey, LocalDate monthStart, long visitCount) {
+        this.dimension = dimension;
+        this.dimensionKey = dimensionKey;
+        this.monthStart = monthStart;
+        this.visitCount = visitCount;
+    }
+
+    public StatisticsDimension getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(StatisticsDimension dimension) {
+        this.dimension = dimension;
+    }
+
+    public String getDimensionKey() {
+        return dimensionKey;
+    }
+
+    public void setDimensionKey(String dimensionKey) {
+        this.dimensionKey = dimensionKey;
+    }
+
+    public LocalDate getMonthStart() {
+        return monthStart;
+    }
+
+    public void setMonthStart(LocalDate monthStart) {
+        this.monthStart = monthStart;
+    }
+
+    public long getVisitCount() {
+        return visitCount;
+    }
+
+    public void setVisitCount(long visitCount) {
+        this.visitCount = visitCount;
+    }
+}
@@ -0,0 +1,95 @@
+package com.jpacourse.dto;
+
+import com.jpacourse.persistence.enums.Specialization;
+import com.jpacourse.persistence.enums.TreatmentType;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Transfer Object (TO) class that represents a patient's visit.
+ * It contains the visit time and description together with the doctor and the treatment, but no reference back
+ * to the patient, so it can be serialized without cycles.
+ */
+public class VisitTO implements Serializable {
+    private Long id;
+
+    private LocalDateTime time;
+
+    private String description;
+
+    private DoctorTO doctor;
+
+    private TreatmentTO treatment;
+
+    public VisitTO() {
+    }
+
+    /**
+     * Creates a visit TO from the columns selected by a JPQL constructor expression.
+     * The doctor and treatment TOs are built from their own columns; the treatment is left {@code null}
+     * if the visit has none.
+     *
+     * @param id                   the ID of the visit
+     * @param time                 the time of the visit
+     * @param description          the description of the visit
+     * @param doctorId             the ID of the doctor
+     * @param doctorFirstName      the first name of the doctor
+     * @param doctorLastName       the last name of the doctor
+     * @param doctorNumber         the doctor's number
+     * @param doctorSpecialization the specialization of the doctor
+     * @param treatmentId          the ID of the treatment, or {@code null} if there is none
+     * @param treatmentDescription the description of the treatment
+     * @param treatmentType        the type of the treatment
+     */
+    public VisitTO(Long id, LocalDateTime time, String description,
+                   Long doctorId, String doctorFirstName, String doctorLastName, String doctorNumber,
+                   Specialization doctorSpecialization,
+                   Long treatmentId, String treatmentDescription, TreatmentType treatmentType) {
+        this.id = id;
+        this.time = time;
+        this.description = description;
+        this.doctor = new DoctorTO(doctorId, doctorFirstName, doctorLastName, doctorNumber, doctorSpecialization);
+        this.treatment = treatmentId != null ? new TreatmentTO(treatmentId, treatmentDescription, treatmentType) : null;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public LocalDateTime getTime() {
+        return time;
+    }
+
+    public void setTime(LocalDateTime time) {
+        this.time = time;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public DoctorTO getDoctor() {
+        return doctor;
+    }
+
+    public void setDoctor(DoctorTO doctor) {
+        this.doctor = doctor;
+    }
+
+    public TreatmentTO getTreatment() {
+        return treatment;
+    }
+
+    public void setTreatment(TreatmentTO treatment) {
+        this.treatment = treatment;
+    }
+}
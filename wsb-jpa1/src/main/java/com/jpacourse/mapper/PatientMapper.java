@@ -3,6 +3,8 @@ package com.jpacourse.mapper;
 import com.jpacourse.dto.PatientTO;
 import com.jpacourse.persistence.entity.PatientEntity;
 
+import java.util.stream.Collectors;
+
 /**
  * Utility class for mapping between PatientEntity and PatientTO (Transfer Object).
  * Provides methods to convert between the persistence layer's entity representation
@@ -30,14 +32,15 @@ public final class PatientMapper {
         patientTO.setDateOfBirth(patientEntity.getDateOfBirth());
         patientTO.setGender(patientEntity.getGender());
 
-        patientTO.setAddress(patientEntity.getAddress());
-        patientTO.setVisits(patientEntity.getVisits());
+        patientTO.setAddress(AddressMapper.mapToTO(patientEntity.getAddress()));
+        patientTO.setVisits(patientEntity.getVisits().stream().map(VisitMapper::mapToTO).collect(Collectors.toList()));
 
         return patientTO;
     }
 
     /**
      * Maps a PatientTO to a PatientEntity.
+     * Visits are not mapped back, since a {@link com.jpacourse.dto.VisitTO} is a read-only view of a visit.
      *
      * @param patientTO the PatientTO to be converted
      * @return a PatientEntity object containing the same data as the provided PatientTO,
@@ -56,8 +59,7 @@ public final class PatientMapper {
         patientEntity.setDateOfBirth(patientTO.getDateOfBirth());
         patientEntity.setGender(patientTO.getGender());
 
-        patientEntity.setAddress(patientTO.getAddress());
-        patientEntity.setVisits(patientTO.getVisits());
+        patientEntity.setAddress(AddressMapper.mapToEntity(patientTO.getAddress()));
 
         return patientEntity;
     }
@@ -0,0 +1,44 @@
+package com.jpacourse.mapper;
+
+import com.jpacourse.dto.DoctorTO;
+import com.jpacourse.dto.TreatmentTO;
+import com.jpacourse.dto.VisitTO;
+import com.jpacourse.persistence.entity.DoctorEntity;
+import com.jpacourse.persistence.entity.MedicalTreatmentEntity;
+import com.jpacourse.persistence.entity.VisitEntity;
+
+/**
+ * Utility class for mapping a VisitEntity that is already loaded to a VisitTO.
+ * Read paths should prefer the projection queries, which build VisitTO objects without loading any entity.
+ */
+public final class VisitMapper {
+
+    /**
+     * Maps a VisitEntity to a VisitTO, including its doctor and medical treatment.
+     *
+     * @param visitEntity the VisitEntity to be converted
+     * @return a VisitTO object containing the same data as the provided VisitEntity,
+     * or null if the input VisitEntity is null
+     */
+    public static VisitTO mapToTO(final VisitEntity visitEntity) {
+        if (visitEntity == null) return null;
+
+        final VisitTO visitTO = new VisitTO();
+        visitTO.setId(visitEntity.getId());
+        visitTO.setTime(visitEntity.getTime());
+        visitTO.setDescription(visitEntity.getDescription());
+
+        final DoctorEntity doctor = visitEntity.getDoctor();
+        if (doctor != null) {
+            visitTO.setDoctor(new DoctorTO(doctor.getId(), doctor.getFirstName(), doctor.getLastName(),
+                    doctor.getDoctorNumber(), doctor.getSpecialization()));
+        }
+
+        final MedicalTreatmentEntity treatment = visitEntity.getMedicalTreatment();
+        if (treatment != null) {
+            visitTO.setTreatment(new TreatmentTO(treatment.getId(), treatment.getDescription(), treatment.getType()));
+        }
+
+        return visitTO;
+    }
+}
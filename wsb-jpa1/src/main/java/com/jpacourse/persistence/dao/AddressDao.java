@@ -8,4 +8,12 @@ import com.jpacourse.persistence.entity.AddressEntity;
  * for the AddressEntity class.
  */
 public interface AddressDao extends Dao<AddressEntity, Long> {
+
+    /**
+     * Reads the version of an address without loading the address entity.
+     *
+     * @param id the ID of the address
+     * @return the version of the address, or {@code null} if no address exists with the given ID
+     */
+    Long findVersionById(Long id);
 }
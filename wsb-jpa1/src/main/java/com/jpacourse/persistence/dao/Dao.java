@@ -1,7 +1,11 @@
 package com.jpacourse.persistence.dao;
 
 import java.io.Serializable;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Generic interface for data access operations.
@@ -12,6 +16,12 @@ import java.util.List;
  */
 public interface Dao<T, K extends Serializable> {
 
+    /**
+     * The most IDs {@link #findAllById(Collection)} and {@link #existsAll(Collection)} accept at once,
+     * one batch of {@code default_batch_fetch_size}.
+     */
+    int MAX_IDS_PER_LOOKUP = 50;
+
     /**
      * Saves a given entity.
      * This method persists the entity to the database.
@@ -22,6 +32,15 @@ public interface Dao<T, K extends Serializable> {
      */
     T save(T entity);
 
+    /**
+     * Saves all given entities.
+     * The entities are persisted in a single transaction and written to the database in JDBC batches.
+     *
+     * @param entities the entities to be saved
+     * @return the saved entities, in the iteration order of the given collection
+     */
+    List<T> saveAll(Collection<T> entities);
+
     /**
      * Retrieves an entity by its ID.
      * This method returns a reference to the entity and might not trigger database loading immediately.
@@ -40,6 +59,16 @@ public interface Dao<T, K extends Serializable> {
      */
     T findOne(K id);
 
+    /**
+     * Finds the entities with the given IDs in as few queries as possible.
+     * The result has one element per ID, in the order of the IDs; the element of an ID without an entity is {@code null}.
+     *
+     * @param ids the identifiers of the entities
+     * @return the entities in the order of {@code ids}, with {@code null} in place of missing entities
+     * @throws IllegalArgumentException if more than {@link #MAX_IDS_PER_LOOKUP} IDs are given
+     */
+    List<T> findAllById(Collection<K> ids);
+
     /**
      * Retrieves all entities of type {@link T}.
      *
@@ -47,6 +76,45 @@ public interface Dao<T, K extends Serializable> {
      */
     List<T> findAll();
 
+    /**
+     * Streams all entities of type {@link T} without loading them into memory at once.
+     * The stream is backed by a forward-only database cursor, so it must be consumed within
+     * the caller's transaction and closed afterwards.
+     *
+     * @return a stream of all entities of type {@link T}
+     */
+    Stream<T> streamAll();
+
+    /**
+     * Processes all entities of type {@link T} in chunks of the given size.
+     * Each chunk is detached from the persistence context once the consumer returns.
+     *
+     * @param size     the maximum number of entities passed to the consumer at once
+     * @param consumer the consumer receiving consecutive chunks of entities
+     */
+    void forEachChunk(int size, Consumer<List<T>> consumer);
+
+    /**
+     * Reads all entities of type {@link T} in chunks of the given size, without writing anything back.
+     * Each chunk is detached from the persistence context once the consumer returns, so lazy associations
+     * of a chunk must be touched by the consumer; they are then initialized in batches for the whole chunk.
+     *
+     * @param size     the maximum number of entities passed to the consumer at once
+     * @param consumer the consumer receiving consecutive chunks of read-only entities
+     */
+    void forEachReadOnlyChunk(int size, Consumer<List<T>> consumer);
+
+    /**
+     * Retrieves one page of entities of type {@link T} ordered by their ID, using keyset pagination.
+     * Each page is located by seeking past the ID held in the cursor, so the cost of a page does not
+     * depend on how many pages were read before it.
+     *
+     * @param after the cursor of the previous page, or {@code null} to read the first page
+     * @param size  the maximum number of entities in the page
+     * @return the page of entities
+     */
+    KeysetPage<T> findPage(PageCursor after, int size);
+
     /**
      * Updates a given entity.
      * This method updates an existing entity in the database.
@@ -56,6 +124,15 @@ public interface Dao<T, K extends Serializable> {
      */
     T update(T entity);
 
+    /**
+     * Updates all given entities.
+     * The changes are merged in a single transaction and written to the database in JDBC batches.
+     *
+     * @param entities the entities to be updated
+     * @return the updated entities, in the iteration order of the given collection
+     */
+    List<T> updateAll(Collection<T> entities);
+
     /**
      * Deletes a given entity.
      * This method removes the entity from the database.
@@ -72,6 +149,15 @@ public interface Dao<T, K extends Serializable> {
      */
     void delete(K id);
 
+    /**
+     * Deletes all entities with the given IDs.
+     * This method removes the entities with set-based statements, without loading them first.
+     *
+     * @param ids the identifiers of the entities to be deleted
+     * @return the number of deleted entities
+     */
+    int deleteByIds(Collection<K> ids);
+
     /**
      * Deletes all entities of type {@link T}.
      * This method removes all entities from the database.
@@ -92,4 +178,13 @@ public interface Dao<T, K extends Serializable> {
      * @return {@code true} if an entity with the given ID exists, {@code false} otherwise
      */
     boolean exists(K id);
+
+    /**
+     * Checks which of the given IDs belong to existing entities, using a single query.
+     *
+     * @param ids the identifiers to check
+     * @return a bit set in which bit {@code i} is set if the {@code i}-th ID, in iteration order, exists
+     * @throws IllegalArgumentException if more than {@link #MAX_IDS_PER_LOOKUP} IDs are given
+     */
+    BitSet existsAll(Collection<K> ids);
 }
@@ -1,11 +1,83 @@
 package com.jpacourse.persistence.dao;
 
+import com.jpacourse.dto.VisitTO;
 import com.jpacourse.persistence.entity.DoctorEntity;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Interface for accessing and manipulating doctor data in the persistence layer.
  * This interface extends the generic Dao interface, providing CRUD operations
  * for the DoctorEntity class.
  */
 public interface DoctorDao extends Dao<DoctorEntity, Long> {
+
+    /**
+     * The shortest slot length the slot queries accept.
+     */
+    Duration MIN_SLOT_LENGTH = Duration.ofMinutes(1);
+
+    /**
+     * The largest number of slots {@link #findFreeSlots(Long, LocalDateTime, LocalDateTime, Duration)} enumerates.
+     */
+    int MAX_SLOTS = 2000;
+
+    /**
+     * The longest range {@link #findVisitsByDoctorId(Long, LocalDateTime, LocalDateTime)} and
+     * {@link #findNextAvailableSlot(Long, LocalDateTime, LocalDateTime, Duration)} search.
+     */
+    Duration MAX_SEARCH_RANGE = Duration.ofDays(92);
+
+    /**
+     * Finds doctors whose last name starts with the given prefix, ignoring case and accents.
+     * The lookup is an index range scan on the normalised last name, ordered by that name.
+     *
+     * @param prefix the beginning of the last name
+     * @param limit  the maximum number of doctors to return
+     * @return a list of at most {@code limit} matching {@link DoctorEntity} objects, or an empty list if none match
+     */
+    List<DoctorEntity> findByLastNamePrefix(String prefix, int limit);
+
+    /**
+     * Finds the visits booked with a doctor that start in the given time range, ordered by time.
+     *
+     * @param doctorId the ID of the doctor
+     * @param from     the start of the range, inclusive
+     * @param to       the end of the range, exclusive
+     * @return a list of {@link VisitTO} objects ordered by time, or an empty list if the doctor has no visits in the range
+     * @throws IllegalArgumentException if {@code to} is before {@code from} or the range is longer than {@link #MAX_SEARCH_RANGE}
+     */
+    List<VisitTO> findVisitsByDoctorId(Long doctorId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Finds the free slots of a doctor in the given time range.
+     * The range is divided into consecutive slots of {@code slotLength} starting at {@code from};
+     * a slot is free if no visit with the doctor starts inside it.
+     *
+     * @param doctorId   the ID of the doctor
+     * @param from       the start of the first slot
+     * @param to         the end of the range; a slot ending after it is not returned
+     * @param slotLength the length of a slot
+     * @return the start times of the free slots in ascending order
+     * @throws IllegalArgumentException if {@code slotLength} is shorter than {@link #MIN_SLOT_LENGTH}, {@code to} is before {@code from},
+     *                                  or the range holds more than {@link #MAX_SLOTS} slots
+     */
+    List<LocalDateTime> findFreeSlots(Long doctorId, LocalDateTime from, LocalDateTime to, Duration slotLength);
+
+    /**
+     * Finds the first free slot of a doctor at or after {@code from}, using the same slot grid as
+     * {@link #findFreeSlots(Long, LocalDateTime, LocalDateTime, Duration)}.
+     *
+     * @param doctorId   the ID of the doctor
+     * @param from       the start of the first slot considered
+     * @param until      the end of the search; a slot ending after it is not returned
+     * @param slotLength the length of a slot
+     * @return the start time of the first free slot, or an empty {@link Optional} if there is none before {@code until}
+     * @throws IllegalArgumentException if {@code slotLength} is shorter than {@link #MIN_SLOT_LENGTH}, {@code until} is before {@code from},
+     *                                  or the range is longer than {@link #MAX_SEARCH_RANGE}
+     */
+    Optional<LocalDateTime> findNextAvailableSlot(Long doctorId, LocalDateTime from, LocalDateTime until, Duration slotLength);
 }
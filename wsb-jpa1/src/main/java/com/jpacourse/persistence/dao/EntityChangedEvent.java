@@ -0,0 +1,67 @@
+package com.jpacourse.persistence.dao;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Application event published by the DAOs whenever they write entities.
+ * It names the entity type and the IDs of the written entities, so that data derived from them,
+ * e.g. cached responses, can be invalidated. Listeners interested in committed data only should
+ * listen after the commit of the publishing transaction.
+ */
+public final class EntityChangedEvent {
+
+    private final Class<?> entityType;
+
+    private final Collection<?> ids;
+
+    private EntityChangedEvent(Class<?> entityType, Collection<?> ids) {
+        this.entityType = entityType;
+        this.ids = ids;
+    }
+
+    /**
+     * Creates an event for the entities of the given type and IDs.
+     *
+     * @param entityType the entity class
+     * @param ids        the IDs of the written entities
+     * @return the event
+     */
+    public static EntityChangedEvent of(Class<?> entityType, Collection<?> ids) {
+        return new EntityChangedEvent(entityType, Collections.unmodifiableCollection(ids));
+    }
+
+    /**
+     * Creates an event for all entities of the given type, e.g. after a bulk statement without an ID list.
+     *
+     * @param entityType the entity class
+     * @return the event
+     */
+    public static EntityChangedEvent ofAll(Class<?> entityType) {
+        return new EntityChangedEvent(entityType, null);
+    }
+
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * Returns the IDs of the written entities.
+     *
+     * @return the IDs, or null if any entity of the type may have been written
+     */
+    public Collection<?> getIds() {
+        return ids;
+    }
+
+    /**
+     * Tells whether the entity of the given type and ID may have been written.
+     *
+     * @param type the entity class
+     * @param id   the entity ID
+     * @return {@code true} if the event covers the entity
+     */
+    public boolean covers(Class<?> type, Object id) {
+        return entityType.equals(type) && (ids == null || ids.contains(id));
+    }
+}
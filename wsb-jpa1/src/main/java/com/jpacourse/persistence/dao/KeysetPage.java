@@ -0,0 +1,57 @@
+package com.jpacourse.persistence.dao;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A single page of results read with keyset (seek) pagination.
+ * Besides the rows, the page carries the cursor of its last row, which is used to request the next page.
+ *
+ * @param <T> the type of the rows
+ */
+public final class KeysetPage<T> {
+
+    private final List<T> content;
+
+    private final PageCursor nextCursor;
+
+    private KeysetPage(List<T> content, PageCursor nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Builds a page from rows read with a limit of {@code size + 1}.
+     * The extra row only signals that another page exists and is not part of the content.
+     *
+     * @param rows     the rows read, at most {@code size + 1}
+     * @param size     the requested page size
+     * @param cursorOf the function computing the cursor of a row
+     * @param <T>      the type of the rows
+     * @return the page
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int size, Function<T, PageCursor> cursorOf) {
+        if (rows.size() <= size) return new KeysetPage<>(Collections.unmodifiableList(rows), null);
+
+        List<T> content = rows.subList(0, size);
+        return new KeysetPage<>(Collections.unmodifiableList(content), cursorOf.apply(content.get(size - 1)));
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * Returns the cursor to pass when requesting the next page.
+     *
+     * @return the cursor of the last row, or {@code null} if this is the last page
+     */
+    public PageCursor getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
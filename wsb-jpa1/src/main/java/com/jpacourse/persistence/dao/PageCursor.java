@@ -0,0 +1,72 @@
+package com.jpacourse.persistence.dao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Opaque position of the last row of a keyset page.
+ * A cursor holds the sort key values of that row and is handed to clients as an encoded token,
+ * so the next page can be located with an index seek instead of skipping over an OFFSET.
+ */
+public final class PageCursor {
+
+    private static final String SEPARATOR = "\u0000";
+
+    private final String[] keys;
+
+    private PageCursor(String[] keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Creates a cursor from the sort key values of a row, in sort order.
+     *
+     * @param keys the sort key values
+     * @return the cursor pointing at the row
+     */
+    public static PageCursor of(Object... keys) {
+        return new PageCursor(Arrays.stream(keys).map(String::valueOf).toArray(String[]::new));
+    }
+
+    /**
+     * Decodes a cursor from a token previously produced by {@link #encode()}.
+     *
+     * @param token the encoded cursor, or {@code null}
+     * @return the decoded cursor, or {@code null} if the token is {@code null}
+     * @throws IllegalArgumentException if the token is not a valid cursor
+     */
+    public static PageCursor decode(String token) {
+        if (token == null) return null;
+
+        String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        return new PageCursor(decoded.split(SEPARATOR, -1));
+    }
+
+    /**
+     * Encodes the cursor as an opaque, URL-safe token.
+     *
+     * @return the encoded cursor
+     */
+    public String encode() {
+        byte[] bytes = String.join(SEPARATOR, keys).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Returns the sort key value at the given position.
+     *
+     * @param index the position of the key in sort order
+     * @return the key value as a string
+     * @throws IllegalArgumentException if the cursor holds no key at that position
+     */
+    public String getKey(int index) {
+        if (index >= keys.length) throw new IllegalArgumentException("Malformed page cursor");
+        return keys[index];
+    }
+
+    @Override
+    public String toString() {
+        return encode();
+    }
+}
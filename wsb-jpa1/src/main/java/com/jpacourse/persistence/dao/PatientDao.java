@@ -1,5 +1,8 @@
 package com.jpacourse.persistence.dao;
 
+import com.jpacourse.dto.PatientTO;
+import com.jpacourse.dto.PatientVersionTO;
+import com.jpacourse.dto.VisitTO;
 import com.jpacourse.persistence.entity.PatientEntity;
 import com.jpacourse.persistence.entity.VisitEntity;
 
@@ -22,9 +25,19 @@ public interface PatientDao extends Dao<PatientEntity, Long> {
      * @param visitTime   the time at which the visit takes place
      * @param description a description or notes related to the visit
      * @return the created VisitEntity object representing the new visit
+     * @throws com.jpacourse.persistence.lock.SlotAlreadyBookedException if the doctor already has a visit at {@code visitTime}
      */
     VisitEntity addVisitToPatient(Long patientId, Long doctorId, LocalDateTime visitTime, String description);
 
+    /**
+     * Finds a patient by ID, loading the associations selected by the given fetch plan in the same statement.
+     *
+     * @param id   the ID of the patient
+     * @param plan the fetch plan deciding which associations are loaded
+     * @return the found {@link PatientEntity}, or {@code null} if no patient exists with the given ID
+     */
+    PatientEntity findOne(Long id, PatientFetchPlan plan);
+
     /**
      * Finds patients by their last name.
      * This method retrieves a list of patients whose last name matches the provided {@code lastName}.
@@ -36,6 +49,25 @@ public interface PatientDao extends Dao<PatientEntity, Long> {
      */
     List<PatientEntity> findByLastName(String lastName);
 
+    /**
+     * Finds patients by their last name, loading the associations selected by the given fetch plan.
+     *
+     * @param lastName the last name of the patient(s) to search for
+     * @param plan     the fetch plan deciding which associations are loaded
+     * @return a list of {@link PatientEntity} objects with the given last name, or an empty list if none are found
+     */
+    List<PatientEntity> findByLastName(String lastName, PatientFetchPlan plan);
+
+    /**
+     * Finds patients whose last name starts with the given prefix, ignoring case and accents.
+     * The lookup is an index range scan on the normalised last name, ordered by that name.
+     *
+     * @param prefix the beginning of the last name
+     * @param limit  the maximum number of patients to return
+     * @return a list of at most {@code limit} matching {@link PatientEntity} objects, or an empty list if none match
+     */
+    List<PatientEntity> findByLastNamePrefix(String prefix, int limit);
+
 //    /**
 //     * Finds patients who have more than a specified number of visits.
 //     * This method retrieves a list of patients who have more than {@code visitCount} visits. The number
@@ -49,5 +81,72 @@ public interface PatientDao extends Dao<PatientEntity, Long> {
 
     List<PatientEntity> findPatientsByIdCardNumberContaining(String partialIdCardNumber);
 
+    /**
+     * Finds patients whose ID card number contains the given fragment, loading the associations selected by
+     * the given fetch plan.
+     *
+     * @param partialIdCardNumber the partial ID card number to search for
+     * @param plan                the fetch plan deciding which associations are loaded
+     * @return a list of matching {@link PatientEntity} objects ordered by ID, or an empty list if none are found
+     */
+    List<PatientEntity> findPatientsByIdCardNumberContaining(String partialIdCardNumber, PatientFetchPlan plan);
+
     List<PatientEntity> findByGender(char gender);
+
+    /**
+     * Finds patients by their gender, loading the associations selected by the given fetch plan.
+     *
+     * @param gender the gender of the patients to search for
+     * @param plan   the fetch plan deciding which associations are loaded
+     * @return a list of {@link PatientEntity} objects with the given gender, or an empty list if none are found
+     */
+    List<PatientEntity> findByGender(char gender, PatientFetchPlan plan);
+
+    /**
+     * Reads a patient as a {@link PatientTO} with their address and visits, selecting only the columns shown in the TOs.
+     * No entity is loaded into the persistence context.
+     *
+     * @param id the ID of the patient
+     * @return the {@link PatientTO}, or {@code null} if no patient exists with the given ID
+     */
+    PatientTO findTOById(Long id);
+
+    /**
+     * Reads the version and the revision of a patient.
+     * Only these columns are selected, so no entity is loaded into the persistence context.
+     *
+     * @param id the ID of the patient
+     * @return the {@link PatientVersionTO}, or {@code null} if no patient exists with the given ID
+     */
+    PatientVersionTO findVersionById(Long id);
+
+    /**
+     * Reads all visits of a patient as {@link VisitTO} objects ordered by visit time and ID.
+     *
+     * @param patientId the ID of the patient whose visits are read
+     * @return a list of {@link VisitTO} objects, or an empty list if the patient has no visits or does not exist
+     */
+    List<VisitTO> findVisitTOsByPatientId(Long patientId);
+
+    /**
+     * Retrieves one page of a patient's visits ordered by visit time and ID, using keyset pagination.
+     * Each page is located by seeking past the {@code (time, id)} pair held in the cursor,
+     * so the cost of a page does not depend on how far the client has scrolled.
+     *
+     * @param patientId the ID of the patient whose visits are read
+     * @param after     the cursor of the previous page, or {@code null} to read the first page
+     * @param size      the maximum number of visits in the page
+     * @return the page of visits
+     */
+    KeysetPage<VisitTO> findVisitsByPatientId(Long patientId, PageCursor after, int size);
+
+    /**
+     * Deletes a patient together with their visits and address, provided the patient still has the given version.
+     * The rows are removed with set-based statements, without loading the patient or their visits.
+     *
+     * @param patientId the ID of the patient to be deleted
+     * @param version   the version of the patient the caller expects to delete
+     * @throws javax.persistence.OptimisticLockException if no patient with the given ID and version exists
+     */
+    void deletePatient(Long patientId, long version);
 }
@@ -0,0 +1,52 @@
+package com.jpacourse.persistence.dao;
+
+import com.jpacourse.persistence.entity.PatientEntity;
+
+/**
+ * Declared fetch plans for loading {@link PatientEntity} objects.
+ * Each plan names an entity graph on {@link PatientEntity} and decides which associations are read
+ * together with the patient, so a call site loads what it needs in a single statement
+ * instead of touching lazy associations one by one afterwards.
+ */
+public enum PatientFetchPlan {
+
+    /**
+     * Only the patient's own columns.
+     */
+    SUMMARY(PatientEntity.GRAPH_SUMMARY),
+
+    /**
+     * The patient together with their address.
+     */
+    WITH_ADDRESS(PatientEntity.GRAPH_WITH_ADDRESS),
+
+    /**
+     * The patient with their address and all visits, including each visit's doctor, the doctor's address
+     * and the medical treatment.
+     */
+    FULL_DOSSIER(PatientEntity.GRAPH_FULL_DOSSIER);
+
+    private final String graphName;
+
+    PatientFetchPlan(String graphName) {
+        this.graphName = graphName;
+    }
+
+    /**
+     * Returns the name of the entity graph backing this plan.
+     *
+     * @return the entity graph name
+     */
+    public String getGraphName() {
+        return graphName;
+    }
+
+    /**
+     * Tells whether this plan fetches the patient's visits, which multiplies the rows of a list query.
+     *
+     * @return {@code true} if the visits collection is part of the plan
+     */
+    public boolean fetchesVisits() {
+        return this == FULL_DOSSIER;
+    }
+}
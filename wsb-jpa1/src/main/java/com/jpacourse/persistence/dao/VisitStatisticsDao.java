@@ -0,0 +1,37 @@
+package com.jpacourse.persistence.dao;
+
+import com.jpacourse.dto.VisitStatisticsTO;
+import com.jpacourse.persistence.entity.VisitStatisticsEntity;
+import com.jpacourse.persistence.enums.StatisticsDimension;
+
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Interface for maintaining and reading the visit statistics in the persistence layer.
+ * The statistics are monthly counters of visits per doctor, specialization and treatment type,
+ * updated together with the visits so that reading them never scans the VISIT table. Inserted, updated and deleted
+ * visits are counted when they are flushed, whichever DAO or cascade wrote them.
+ */
+public interface VisitStatisticsDao extends Dao<VisitStatisticsEntity, Long> {
+
+    /**
+     * Removes the visits of the given patients from their buckets.
+     * Must be called before the visits are deleted by a bulk statement, in the same transaction; visits removed
+     * through the persistence context are already subtracted when their deletion is flushed.
+     *
+     * @param patientIds the IDs of the patients whose visits are about to be deleted
+     */
+    void recordRemovedVisitsOfPatients(Collection<Long> patientIds);
+
+    /**
+     * Reads the buckets of one dimension for a range of months, ordered by month and key.
+     *
+     * @param dimension the dimension to read
+     * @param from      the first month, inclusive
+     * @param to        the last month, inclusive
+     * @return a list of {@link VisitStatisticsTO} objects, or an empty list if no visits were counted in the range
+     */
+    List<VisitStatisticsTO> findByDimension(StatisticsDimension dimension, YearMonth from, YearMonth to);
+}
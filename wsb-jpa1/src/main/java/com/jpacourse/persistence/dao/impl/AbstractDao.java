@@ -1,31 +1,86 @@
 package com.jpacourse.persistence.dao.impl;
 
 import com.jpacourse.persistence.dao.Dao;
+import com.jpacourse.persistence.dao.EntityChangedEvent;
+import com.jpacourse.persistence.dao.KeysetPage;
+import com.jpacourse.persistence.dao.PageCursor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.annotation.PostConstruct;
+import javax.persistence.Cache;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.metamodel.EntityType;
 import java.io.Serializable;
 import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Abstract base class for DAO implementations providing basic CRUD operations.
  * This class implements the {@link Dao} interface and is designed to handle common data access operations
  * for entity classes in a generic way.
+ * Lookups run in read-only transactions, for which Hibernate skips dirty-check snapshots and uses
+ * {@code FlushMode.MANUAL}; only the methods that write are annotated with a read-write {@link Transactional}.
+ * Every write publishes an {@link EntityChangedEvent} naming the written entities.
  *
  * @param <T> the type of the entity
  * @param <K> the type of the entity's identifier (ID)
  */
-@Transactional
+@Transactional(readOnly = true)
 public abstract class AbstractDao<T, K extends Serializable> implements Dao<T, K> {
 
+    private static final String COUNT_QUERY = "count";
+    private static final String DELETE_ALL_QUERY = "deleteAll";
+    private static final String DELETE_BY_IDS_QUERY = "deleteByIds";
+    private static final String EXISTS_QUERY = "exists";
+    private static final String EXISTS_ALL_QUERY = "existsAll";
+    private static final String FIRST_PAGE_QUERY = "findFirstPage";
+    private static final String NEXT_PAGE_QUERY = "findNextPage";
+
     @PersistenceContext
     protected EntityManager entityManager;
 
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.fetch_size:500}")
+    private int fetchSize;
+
+    @Value("${spring.jpa.properties.hibernate.default_batch_fetch_size:50}")
+    private int batchFetchSize;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     private Class<T> domainClass;
 
     /**
@@ -36,11 +91,40 @@ public abstract class AbstractDao<T, K extends Serializable> implements Dao<T, K
      * @return the persisted entity
      */
     @Override
+    @Transactional
     public T save(T entity) {
         entityManager.persist(entity);
+        publishChange(getDomainClass(), Collections.singletonList(getId(entity)));
         return entity;
     }
 
+    /**
+     * Saves all given entities to the database in a single transaction.
+     * The inserts are sent in JDBC batches and the persistence context is flushed and cleared after
+     * every batch, so memory use stays bounded regardless of the number of entities.
+     * <p>
+     * Clearing detaches every managed entity of the current persistence context, including the returned ones.
+     *
+     * @param entities the entities to be saved
+     * @return the persisted (detached) entities
+     */
+    @Override
+    @Transactional
+    public List<T> saveAll(Collection<T> entities) {
+        List<T> saved = new ArrayList<>(entities.size());
+        List<Object> ids = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            entityManager.persist(entity);
+            saved.add(entity);
+            ids.add(getId(entity));
+            flushAndClearOnBatchBoundary(saved.size());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        publishChange(getDomainClass(), ids);
+        return saved;
+    }
+
     /**
      * Retrieves an entity by its ID. This method returns a reference to the entity.
      *
@@ -64,6 +148,28 @@ public abstract class AbstractDao<T, K extends Serializable> implements Dao<T, K
         return entityManager.find(getDomainClass(), id);
     }
 
+    /**
+     * Finds the entities with the given IDs using Hibernate multi-load.
+     * Entities already in the persistence context are taken from there, and the rest
+     * are read with {@code IN} queries of up to {@code default_batch_fetch_size} IDs each.
+     *
+     * @param ids the identifiers of the entities
+     * @return the entities in the order of {@code ids}, with {@code null} in place of missing entities
+     */
+    @Override
+    public List<T> findAllById(Collection<K> ids) {
+        checkIdCount(ids);
+        if (ids.isEmpty()) return new ArrayList<>();
+
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(getDomainClass())
+                .withBatchSize(batchFetchSize)
+                .enableSessionCheck(true)
+                .enableOrderedReturn(true)
+                .enableReturnOfDeletedEntities(false)
+                .multiLoad(new ArrayList<>(ids));
+    }
+
     /**
      * Finds all entities of the type {@link T}.
      *
@@ -71,13 +177,109 @@ public abstract class AbstractDao<T, K extends Serializable> implements Dao<T, K
      */
     @Override
     public List<T> findAll() {
-        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
-        CriteriaQuery<T> criteriaQuery = builder.createQuery(getDomainClass());
-        criteriaQuery.from(getDomainClass());
-        TypedQuery<T> query = entityManager.createQuery(criteriaQuery);
+        TypedQuery<T> query = entityManager.createQuery(createFindAllCriteria());
         return query.getResultList();
     }
 
+    /**
+     * Streams all entities of the type {@link T} from a forward-only, read-only cursor.
+     * Rows are fetched {@code hibernate.jdbc.fetch_size} at a time. Each time that many entities have been handed out,
+     * pending changes are flushed and the entities that became managed since the stream was opened are detached,
+     * so memory use stays flat for any table size. Entities the caller already held stay managed.
+     * <p>
+     * The stream must be consumed sequentially within the caller's transaction and closed afterwards.
+     *
+     * @return a stream of all entities of type {@link T}
+     */
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Stream<T> streamAll() {
+        final Set<Object> retained = managedEntities();
+        final ScrollableResults results = scrollAll(true);
+        Iterator<T> iterator = new Iterator<T>() {
+            private int processed;
+            private boolean advanced;
+            private boolean available;
+
+            @Override
+            public boolean hasNext() {
+                if (!advanced) {
+                    if (processed > 0 && processed % fetchSize == 0) {
+                        entityManager.flush();
+                        detachAllExcept(retained);
+                    }
+                    available = results.next();
+                    advanced = true;
+                }
+                return available;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                advanced = false;
+                processed++;
+                return (T) results.get(0);
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(results::close);
+    }
+
+    /**
+     * Processes all entities of the type {@link T} in chunks read from a forward-only cursor.
+     * After the consumer returns, the chunk is flushed and the entities that became managed while reading it are
+     * detached, so changes made by the consumer are written and memory use stays flat for any table size.
+     * Entities the caller already held stay managed.
+     *
+     * @param size     the maximum number of entities passed to the consumer at once
+     * @param consumer the consumer receiving consecutive chunks of entities
+     * @throws IllegalArgumentException if {@code size} is not positive
+     */
+    @Override
+    @Transactional
+    public void forEachChunk(int size, Consumer<List<T>> consumer) {
+        scrollInChunks(false, size, consumer);
+        eventPublisher.publishEvent(EntityChangedEvent.ofAll(getDomainClass()));
+    }
+
+    /**
+     * Reads all entities of the type {@link T} in chunks from a forward-only, read-only cursor.
+     * Rows are fetched {@code hibernate.jdbc.fetch_size} at a time. After the consumer returns, the entities that
+     * became managed while reading the chunk are detached without a flush, so memory use stays flat for any table size.
+     * Entities the caller already held stay managed.
+     *
+     * @param size     the maximum number of entities passed to the consumer at once
+     * @param consumer the consumer receiving consecutive chunks of read-only entities
+     * @throws IllegalArgumentException if {@code size} is not positive
+     */
+    @Override
+    public void forEachReadOnlyChunk(int size, Consumer<List<T>> consumer) {
+        scrollInChunks(true, size, consumer);
+    }
+
+    /**
+     * Retrieves one page of entities of the type {@link T} ordered by ID, using keyset pagination.
+     * The query seeks past the last ID of the previous page through the primary key index,
+     * so every page costs the same however deep the client scrolls.
+     *
+     * @param after the cursor of the previous page, or {@code null} to read the first page
+     * @param size  the maximum number of entities in the page
+     * @return the page of entities
+     * @throws IllegalArgumentException if {@code size} is not positive or the cursor is malformed
+     */
+    @Override
+    public KeysetPage<T> findPage(PageCursor after, int size) {
+        if (size <= 0) throw new IllegalArgumentException("Page size must be positive: " + size);
+
+        TypedQuery<T> query = entityManager.createNamedQuery(getQueryName(after != null ? NEXT_PAGE_QUERY : FIRST_PAGE_QUERY), getDomainClass())
+                .setMaxResults(size + 1);
+        if (after != null) query.setParameter("lastId", parseId(after.getKey(0)));
+
+        return KeysetPage.of(query.getResultList(), size, entity -> PageCursor.of(getId(entity)));
+    }
+
     /**
      * Updates the given entity.
      * This method merges the changes to the entity in the database.
@@ -86,9 +288,39 @@ public abstract class AbstractDao<T, K extends Serializable> implements Dao<T, K
      * @return the updated entity
      */
     @Override
+    @Transactional
     public T update(T entity) {
         entityManager.flush();
-        return entityManager.merge(entity);
+        T merged = entityManager.merge(entity);
+        publishChange(getDomainClass(), Collections.singletonList(getId(merged)));
+        return merged;
+    }
+
+    /**
+     * Updates all given entities in a single transaction.
+     * The updates are sent in JDBC batches and the persistence context is flushed and cleared after
+     * every batch, so memory use stays bounded regardless of the number of entities.
+     * <p>
+     * Clearing detaches every managed entity of the current persistence context, including the returned ones.
+     *
+     * @param entities the entities to be updated
+     * @return the updated (detached) entities
+     */
+    @Override
+    @Transactional
+    public List<T> updateAll(Collection<T> entities) {
+        List<T> updated = new ArrayList<>(entities.size());
+        List<Object> ids = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            T merged = entityManager.merge(entity);
+            updated.add(merged);
+            ids.add(getId(merged));
+            flushAndClearOnBatchBoundary(updated.size());
+        }
+        entityManager.flush();
+        entityManager.clear();
+        publishChange(getDomainClass(), ids);
+        return updated;
     }
 
     /**
@@ -97,26 +329,57 @@ public abstract class AbstractDao<T, K extends Serializable> implements Dao<T, K
      * @param entity the entity to be deleted
      */
     @Override
+    @Transactional
     public void delete(T entity) {
+        publishChange(getDomainClass(), Collections.singletonList(getId(entity)));
         entityManager.remove(entity);
     }
 
     /**
-     * Deletes the entity with the specified ID from the database.
+     * Deletes the entity with the specified ID from the database, without loading it.
      *
      * @param id the ID of the entity to be deleted
+     * @see #deleteByIds(Collection)
      */
     @Override
+    @Transactional
     public void delete(K id) {
-        entityManager.remove(getOne(id));
+        deleteByIds(Collections.singletonList(id));
+    }
+
+    /**
+     * Deletes all entities with the given IDs using a single bulk DELETE statement, without loading them.
+     * Pending changes are flushed first, and the deleted entities are detached afterwards so that none of them
+     * remains managed; other entities of the persistence context stay managed.
+     * <p>
+     * Bulk deletes bypass JPA cascades, so subclasses whose entities own dependent rows override this method.
+     *
+     * @param ids the IDs of the entities to be deleted
+     * @return the number of deleted entities
+     */
+    @Override
+    @Transactional
+    public int deleteByIds(Collection<K> ids) {
+        if (ids.isEmpty()) return 0;
+
+        entityManager.flush();
+        int deleted = entityManager.createNamedQuery(getQueryName(DELETE_BY_IDS_QUERY))
+                .setParameter("ids", ids)
+                .executeUpdate();
+        detach(getDomainClass(), ids);
+        evictFromSharedCache(getDomainClass(), ids);
+        publishChange(getDomainClass(), ids);
+        return deleted;
     }
 
     /**
      * Deletes all entities of the type {@link T} from the database.
      */
     @Override
+    @Transactional
     public void deleteAll() {
-        entityManager.createQuery("delete " + getDomainClassName()).executeUpdate();
+        entityManager.createNamedQuery(getQueryName(DELETE_ALL_QUERY)).executeUpdate();
+        eventPublisher.publishEvent(EntityChangedEvent.ofAll(getDomainClass()));
     }
 
     /**
@@ -126,18 +389,284 @@ public abstract class AbstractDao<T, K extends Serializable> implements Dao<T, K
      */
     @Override
     public long count() {
-        return (long) entityManager.createQuery("Select count(*) from " + getDomainClassName()).getSingleResult();
+        return entityManager.createNamedQuery(getQueryName(COUNT_QUERY), Long.class).getSingleResult();
     }
 
     /**
      * Checks if an entity with the specified ID exists in the database.
+     * Only the primary key is selected, so neither the entity nor its eager associations are loaded.
      *
      * @param id the ID of the entity to check
      * @return true if the entity exists, false otherwise
      */
     @Override
     public boolean exists(K id) {
-        return findOne(id) != null;
+        return !entityManager.createNamedQuery(getQueryName(EXISTS_QUERY))
+                .setParameter("id", id)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    /**
+     * Checks which of the given IDs exist in the database with a single key-only query.
+     *
+     * @param ids the IDs to check
+     * @return a bit set in which bit {@code i} is set if the {@code i}-th ID, in iteration order, exists
+     */
+    @Override
+    public BitSet existsAll(Collection<K> ids) {
+        checkIdCount(ids);
+        BitSet result = new BitSet(ids.size());
+        if (ids.isEmpty()) return result;
+
+        List<?> found = entityManager.createNamedQuery(getQueryName(EXISTS_ALL_QUERY))
+                .setParameter("ids", ids)
+                .getResultList();
+        Set<Object> existing = new HashSet<>(found);
+        int index = 0;
+        for (K id : ids) {
+            if (existing.contains(id)) result.set(index);
+            index++;
+        }
+        return result;
+    }
+
+    private static void checkIdCount(Collection<?> ids) {
+        if (ids.size() > MAX_IDS_PER_LOOKUP) {
+            throw new IllegalArgumentException("At most " + MAX_IDS_PER_LOOKUP + " IDs can be looked up at once: " + ids.size());
+        }
+    }
+
+    /**
+     * Parses the generic queries of the domain class once at startup and registers them as named queries.
+     * Each call then only looks up the precompiled query instead of concatenating and parsing a JPQL string,
+     * and a query that does not fit the domain class fails the application start instead of the first call.
+     */
+    @PostConstruct
+    void registerNamedQueries() {
+        String entityName = getDomainClassName();
+        String idName = getIdAttributeName();
+        EntityManager registrar = entityManager.getEntityManagerFactory().createEntityManager();
+        try {
+            registerNamedQuery(registrar, COUNT_QUERY, "select count(e) from " + entityName + " e");
+            registerNamedQuery(registrar, DELETE_ALL_QUERY, "delete from " + entityName + " e");
+            registerNamedQuery(registrar, DELETE_BY_IDS_QUERY, "delete from " + entityName + " e where e." + idName + " in :ids");
+            registerNamedQuery(registrar, EXISTS_QUERY, "select e." + idName + " from " + entityName + " e where e." + idName + " = :id");
+            registerNamedQuery(registrar, EXISTS_ALL_QUERY, "select e." + idName + " from " + entityName + " e where e." + idName + " in :ids");
+            registerNamedQuery(registrar, FIRST_PAGE_QUERY, "select e from " + entityName + " e order by e." + idName);
+            registerNamedQuery(registrar, NEXT_PAGE_QUERY, "select e from " + entityName + " e where e." + idName + " > :lastId order by e." + idName);
+        } finally {
+            registrar.close();
+        }
+    }
+
+    /**
+     * Returns the name under which a generic query of the domain class is registered.
+     *
+     * @param query the name of the generic query
+     * @return the named query name, prefixed with the simple name of the domain class
+     */
+    protected String getQueryName(String query) {
+        return getDomainClass().getSimpleName() + "." + query;
+    }
+
+    private void registerNamedQuery(EntityManager registrar, String query, String jpql) {
+        entityManager.getEntityManagerFactory().addNamedQuery(getQueryName(query), registrar.createQuery(jpql));
+    }
+
+    /**
+     * Flushes and clears the persistence context once a full JDBC batch has been queued.
+     *
+     * @param processed the number of entities processed so far
+     */
+    protected void flushAndClearOnBatchBoundary(int processed) {
+        if (processed % batchSize == 0) {
+            entityManager.flush();
+            entityManager.clear();
+        }
+    }
+
+    /**
+     * Creates a criteria query selecting all entities of the type {@link T}.
+     *
+     * @return the criteria query
+     */
+    protected CriteriaQuery<T> createFindAllCriteria() {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> criteriaQuery = builder.createQuery(getDomainClass());
+        criteriaQuery.from(getDomainClass());
+        return criteriaQuery;
+    }
+
+    /**
+     * Opens a forward-only cursor over all entities of the type {@link T}.
+     *
+     * @param readOnly whether the loaded entities should be read-only
+     * @return the scrollable results
+     */
+    private ScrollableResults scrollAll(boolean readOnly) {
+        return entityManager.unwrap(Session.class)
+                .createQuery(createFindAllCriteria())
+                .setFetchSize(fetchSize)
+                .setReadOnly(readOnly)
+                .scroll(ScrollMode.FORWARD_ONLY);
+    }
+
+    /**
+     * Reads all entities of the type {@link T} from a forward-only cursor and passes them to the consumer in chunks.
+     *
+     * @param readOnly whether the loaded entities should be read-only, in which case chunks are not flushed
+     * @param size     the maximum number of entities passed to the consumer at once
+     * @param consumer the consumer receiving consecutive chunks of entities
+     * @throws IllegalArgumentException if {@code size} is not positive
+     */
+    @SuppressWarnings("unchecked")
+    private void scrollInChunks(boolean readOnly, int size, Consumer<List<T>> consumer) {
+        if (size <= 0) throw new IllegalArgumentException("Chunk size must be positive: " + size);
+
+        Set<Object> retained = managedEntities();
+        ScrollableResults results = scrollAll(readOnly);
+        try {
+            List<T> chunk = new ArrayList<>(size);
+            while (results.next()) {
+                chunk.add((T) results.get(0));
+                if (chunk.size() == size) {
+                    processChunk(chunk, readOnly, consumer, retained);
+                    chunk = new ArrayList<>(size);
+                }
+            }
+            if (!chunk.isEmpty()) processChunk(chunk, readOnly, consumer, retained);
+        } finally {
+            results.close();
+        }
+    }
+
+    /**
+     * Passes a chunk to the consumer, then flushes (unless read-only) and detaches the entities loaded since the
+     * iteration started.
+     *
+     * @param chunk    the chunk of entities
+     * @param readOnly whether the chunk was loaded read-only and has nothing to flush
+     * @param consumer the consumer of the chunk
+     * @param retained the entities that were managed before the iteration started
+     */
+    private void processChunk(List<T> chunk, boolean readOnly, Consumer<List<T>> consumer, Set<Object> retained) {
+        consumer.accept(chunk);
+        if (!readOnly) entityManager.flush();
+        detachAllExcept(retained);
+    }
+
+    /**
+     * Returns the entities currently managed by the persistence context, compared by identity.
+     *
+     * @return the managed entities
+     */
+    private Set<Object> managedEntities() {
+        Set<Object> managed = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Map.Entry<Object, EntityEntry> entry : persistenceContextEntries()) {
+            managed.add(entry.getKey());
+        }
+        return managed;
+    }
+
+    /**
+     * Detaches every managed entity except the given ones, leaving the entities owned by the caller,
+     * and their unflushed changes, in the persistence context.
+     *
+     * @param retained the entities to keep managed
+     */
+    private void detachAllExcept(Set<Object> retained) {
+        for (Map.Entry<Object, EntityEntry> entry : persistenceContextEntries()) {
+            Object entity = entry.getKey();
+            if (!retained.contains(entity) && entityManager.contains(entity)) entityManager.detach(entity);
+        }
+    }
+
+    private Map.Entry<Object, EntityEntry>[] persistenceContextEntries() {
+        return entityManager.unwrap(SessionImplementor.class).getPersistenceContext().reentrantSafeEntityEntries();
+    }
+
+    /**
+     * Detaches the entities of the given type and IDs from the persistence context, together with their proxies,
+     * without touching the other managed entities. Used after bulk statements, which bypass the persistence context,
+     * so that a later lookup in the same transaction does not return a deleted entity.
+     *
+     * @param entityType the class of the entities
+     * @param ids        the IDs of the entities
+     */
+    protected void detach(Class<?> entityType, Collection<?> ids) {
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(entityType);
+        for (Object id : ids) {
+            EntityKey key = session.generateEntityKey((Serializable) id, persister);
+            Object proxy = session.getPersistenceContext().getProxy(key);
+            if (proxy != null) entityManager.detach(proxy);
+            Object entity = session.getPersistenceContext().getEntity(key);
+            if (entity != null) entityManager.detach(entity);
+        }
+    }
+
+    /**
+     * Removes the entities of the given type and IDs from the second-level cache.
+     * Hibernate invalidates the cache regions touched by a bulk statement only when the transaction completes,
+     * so without this a read later in the same transaction could still return a deleted entity from the cache.
+     *
+     * @param entityType the class of the entities
+     * @param ids        the IDs of the entities
+     */
+    protected void evictFromSharedCache(Class<?> entityType, Collection<?> ids) {
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        for (Object id : ids) {
+            cache.evict(entityType, id);
+        }
+    }
+
+    /**
+     * Publishes an {@link EntityChangedEvent} for the entities of the given type and IDs written by this DAO,
+     * so that data derived from them can be invalidated.
+     *
+     * @param entityType the class of the written entities
+     * @param ids        the IDs of the written entities
+     */
+    protected void publishChange(Class<?> entityType, Collection<?> ids) {
+        eventPublisher.publishEvent(EntityChangedEvent.of(entityType, ids));
+    }
+
+    /**
+     * Retrieves the identifier of the given entity.
+     *
+     * @param entity the entity
+     * @return the identifier of the entity
+     */
+    protected Object getId(T entity) {
+        return entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+    }
+
+    /**
+     * Retrieves the name of the ID attribute of the domain class from the JPA metamodel.
+     *
+     * @return the name of the ID attribute
+     */
+    protected String getIdAttributeName() {
+        EntityType<T> entityType = entityManager.getEntityManagerFactory().getMetamodel().entity(getDomainClass());
+        return entityType.getId(entityType.getIdType().getJavaType()).getName();
+    }
+
+    /**
+     * Converts the string form of an ID held in a {@link PageCursor} back to the ID type of the domain class.
+     *
+     * @param value the string form of the ID
+     * @return the ID
+     * @throws IllegalArgumentException if the value cannot be converted
+     */
+    @SuppressWarnings("unchecked")
+    protected K parseId(String value) {
+        Class<?> idType = entityManager.getEntityManagerFactory().getMetamodel().entity(getDomainClass()).getIdType().getJavaType();
+        if (idType == Long.class) return (K) Long.valueOf(value);
+        if (idType == Integer.class) return (K) Integer.valueOf(value);
+        if (idType == String.class) return (K) value;
+        throw new IllegalArgumentException("Unsupported ID type for keyset pagination: " + idType.getName());
     }
 
     /**
@@ -157,7 +686,7 @@ public abstract class AbstractDao<T, K extends Serializable> implements Dao<T, K
 
     /**
      * Retrieves the name of the domain class.
-     * This is used in JPQL queries for dynamic class name access.
+     * This is used to build the generic JPQL queries registered at startup.
      *
      * @return the name of the domain class
      */
@@ -4,6 +4,8 @@ import com.jpacourse.persistence.dao.AddressDao;
 import com.jpacourse.persistence.entity.AddressEntity;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Implementation of the {@link AddressDao} interface for accessing and manipulating {@link AddressEntity} data.
  * This class provides the actual implementation of the methods defined in the {@link AddressDao} interface.
@@ -12,4 +14,17 @@ import org.springframework.stereotype.Repository;
 @Repository
 public class AddressDaoImpl extends AbstractDao<AddressEntity, Long> implements AddressDao {
 
+    /**
+     * Reads the version of an address with a projection query, so no entity is loaded into the persistence context.
+     *
+     * @param id the ID of the address
+     * @return the version of the address, or {@code null} if no address exists with the given ID
+     */
+    @Override
+    public Long findVersionById(Long id) {
+        List<Long> versions = entityManager.createNamedQuery(AddressEntity.FIND_VERSION_BY_ID, Long.class)
+                .setParameter("id", id)
+                .getResultList();
+        return versions.isEmpty() ? null : versions.get(0);
+    }
 }
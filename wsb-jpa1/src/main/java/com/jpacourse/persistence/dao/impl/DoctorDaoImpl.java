@@ -1,9 +1,19 @@
 package com.jpacourse.persistence.dao.impl;
 
+import com.jpacourse.dto.VisitTO;
 import com.jpacourse.persistence.dao.DoctorDao;
 import com.jpacourse.persistence.entity.DoctorEntity;
+import com.jpacourse.persistence.entity.VisitEntity;
+import com.jpacourse.persistence.util.NameNormalizer;
 import org.springframework.stereotype.Repository;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Implementation of the DoctorDao interface for accessing and manipulating doctor data
  * in the persistence layer. Extends the AbstractDao class to inherit basic CRUD operations
@@ -14,4 +24,127 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public class DoctorDaoImpl extends AbstractDao<DoctorEntity, Long> implements DoctorDao {
+
+    private static final Duration SEARCH_WINDOW = Duration.ofDays(1);
+
+    /**
+     * Finds doctors whose last name starts with the given prefix, ignoring case and accents.
+     * The prefix is normalised the same way as the stored last names, so the query is an index range scan.
+     *
+     * @param prefix the beginning of the last name
+     * @param limit  the maximum number of doctors to return
+     * @return a list of at most {@code limit} matching {@link DoctorEntity} objects, or an empty list if none match
+     * @throws IllegalArgumentException if {@code limit} is not positive
+     */
+    @Override
+    public List<DoctorEntity> findByLastNamePrefix(String prefix, int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("Limit must be positive: " + limit);
+
+        return entityManager.createNamedQuery(DoctorEntity.FIND_BY_LAST_NAME_PREFIX, DoctorEntity.class)
+                .setParameter("prefix", NameNormalizer.toPrefixPattern(prefix))
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Finds the visits booked with a doctor that start in the given time range, ordered by time.
+     * The query seeks the {@code (doctor_id, time)} index and selects only the columns of the {@link VisitTO}.
+     *
+     * @param doctorId the ID of the doctor
+     * @param from     the start of the range, inclusive
+     * @param to       the end of the range, exclusive
+     * @return a list of {@link VisitTO} objects ordered by time, or an empty list if the doctor has no visits in the range
+     * @throws IllegalArgumentException if {@code to} is before {@code from} or the range is longer than {@link #MAX_SEARCH_RANGE}
+     */
+    @Override
+    public List<VisitTO> findVisitsByDoctorId(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        checkSearchRange(from, to);
+
+        return entityManager.createNamedQuery(VisitEntity.FIND_TOS_BY_DOCTOR_ID_AND_TIME_RANGE, VisitTO.class)
+                .setParameter("doctorId", doctorId)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList();
+    }
+
+    /**
+     * Finds the free slots of a doctor in the given time range.
+     * Only the start times of the booked visits are read, straight from the {@code (doctor_id, time)} index,
+     * and merged with the slot grid in a single pass.
+     *
+     * @param doctorId   the ID of the doctor
+     * @param from       the start of the first slot
+     * @param to         the end of the range; a slot ending after it is not returned
+     * @param slotLength the length of a slot
+     * @return the start times of the free slots in ascending order
+     * @throws IllegalArgumentException if {@code slotLength} is shorter than {@link #MIN_SLOT_LENGTH}, {@code to} is before {@code from},
+     *                                  or the range holds more than {@link #MAX_SLOTS} slots
+     */
+    @Override
+    public List<LocalDateTime> findFreeSlots(Long doctorId, LocalDateTime from, LocalDateTime to, Duration slotLength) {
+        checkRange(from, to, slotLength);
+        if (Duration.between(from, to).dividedBy(slotLength) > MAX_SLOTS) {
+            throw new IllegalArgumentException("Range from " + from + " to " + to + " holds more than " + MAX_SLOTS + " slots of " + slotLength);
+        }
+
+        Iterator<LocalDateTime> booked = entityManager.createNamedQuery(VisitEntity.FIND_TIMES_BY_DOCTOR_ID_AND_TIME_RANGE, LocalDateTime.class)
+                .setParameter("doctorId", doctorId)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .getResultList()
+                .iterator();
+        LocalDateTime nextBooked = booked.hasNext() ? booked.next() : null;
+
+        List<LocalDateTime> free = new ArrayList<>();
+        for (LocalDateTime slot = from; !slot.plus(slotLength).isAfter(to); slot = slot.plus(slotLength)) {
+            LocalDateTime slotEnd = slot.plus(slotLength);
+            if (nextBooked == null || !nextBooked.isBefore(slotEnd)) {
+                free.add(slot);
+                continue;
+            }
+            while (nextBooked != null && nextBooked.isBefore(slotEnd)) {
+                nextBooked = booked.hasNext() ? booked.next() : null;
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Finds the first free slot of a doctor at or after {@code from}.
+     * The range up to {@code until} is searched in windows of about one day, so only the bookings
+     * of the days actually inspected are read.
+     *
+     * @param doctorId   the ID of the doctor
+     * @param from       the start of the first slot considered
+     * @param until      the end of the search; a slot ending after it is not returned
+     * @param slotLength the length of a slot
+     * @return the start time of the first free slot, or an empty {@link Optional} if there is none before {@code until}
+     * @throws IllegalArgumentException if {@code slotLength} is shorter than {@link #MIN_SLOT_LENGTH}, {@code until} is before {@code from},
+     *                                  or the range is longer than {@link #MAX_SEARCH_RANGE}
+     */
+    @Override
+    public Optional<LocalDateTime> findNextAvailableSlot(Long doctorId, LocalDateTime from, LocalDateTime until, Duration slotLength) {
+        checkRange(from, until, slotLength);
+        checkSearchRange(from, until);
+
+        Duration window = slotLength.multipliedBy(Math.min(MAX_SLOTS, Math.max(1, SEARCH_WINDOW.dividedBy(slotLength))));
+        for (LocalDateTime start = from; start.isBefore(until); start = start.plus(window)) {
+            LocalDateTime end = start.plus(window).isAfter(until) ? until : start.plus(window);
+            List<LocalDateTime> free = findFreeSlots(doctorId, start, end, slotLength);
+            if (!free.isEmpty()) return Optional.of(free.get(0));
+        }
+        return Optional.empty();
+    }
+
+    private static void checkRange(LocalDateTime from, LocalDateTime to, Duration slotLength) {
+        if (slotLength.compareTo(MIN_SLOT_LENGTH) < 0) throw new IllegalArgumentException("Slot length must be at least " + MIN_SLOT_LENGTH + ": " + slotLength);
+        if (to.isBefore(from)) throw new IllegalArgumentException("Range end " + to + " is before its start " + from);
+    }
+
+    private static void checkSearchRange(LocalDateTime from, LocalDateTime to) {
+        if (to.isBefore(from)) throw new IllegalArgumentException("Range end " + to + " is before its start " + from);
+        if (Duration.between(from, to).compareTo(MAX_SEARCH_RANGE) > 0) {
+            throw new IllegalArgumentException("Range from " + from + " to " + to + " is longer than " + MAX_SEARCH_RANGE);
+        }
+    }
 }
@@ -1,14 +1,44 @@
 package com.jpacourse.persistence.dao.impl;
 
+import com.jpacourse.dto.PatientTO;
+import com.jpacourse.dto.PatientVersionTO;
+import com.jpacourse.dto.VisitTO;
+import com.jpacourse.persistence.dao.DoctorDao;
+import com.jpacourse.persistence.dao.KeysetPage;
+import com.jpacourse.persistence.dao.PageCursor;
 import com.jpacourse.persistence.dao.PatientDao;
+import com.jpacourse.persistence.dao.PatientFetchPlan;
+import com.jpacourse.persistence.dao.VisitStatisticsDao;
+import com.jpacourse.persistence.entity.AddressEntity;
 import com.jpacourse.persistence.entity.DoctorEntity;
+import com.jpacourse.persistence.entity.MedicalTreatmentEntity;
 import com.jpacourse.persistence.entity.PatientEntity;
 import com.jpacourse.persistence.entity.VisitEntity;
+import com.jpacourse.persistence.index.IdCardNumberTrigramIndex;
+import com.jpacourse.persistence.lock.SlotAlreadyBookedException;
+import com.jpacourse.persistence.lock.VisitSlotReservations;
+import com.jpacourse.persistence.util.NameNormalizer;
+import org.hibernate.Hibernate;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.transaction.Transactional;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.PersistenceException;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * Implementation of the {@link PatientDao} interface.
@@ -18,33 +48,98 @@ import java.util.List;
 @Repository
 public class PatientDaoImpl extends AbstractDao<PatientEntity, Long> implements PatientDao {
 
+    private static final int DELETE_ALL_CHUNK_SIZE = 500;
+
+    private final IdCardNumberTrigramIndex idCardNumberIndex;
+    private final DoctorDao doctorDao;
+    private final VisitSlotReservations slotReservations;
+    private final VisitStatisticsDao visitStatisticsDao;
+
+    /**
+     * Constructs a {@link PatientDaoImpl} with the given {@link IdCardNumberTrigramIndex}, {@link DoctorDao},
+     * {@link VisitSlotReservations} and {@link VisitStatisticsDao}.
+     *
+     * @param pIdCardNumberIndex  the trigram index used to answer ID card number substring lookups
+     * @param pDoctorDao          the DAO used to check that a visit's doctor exists
+     * @param pSlotReservations   the table of doctor slots being booked by concurrent transactions
+     * @param pVisitStatisticsDao the DAO maintaining the visit counters
+     */
+    public PatientDaoImpl(IdCardNumberTrigramIndex pIdCardNumberIndex, DoctorDao pDoctorDao,
+                          VisitSlotReservations pSlotReservations, VisitStatisticsDao pVisitStatisticsDao) {
+        idCardNumberIndex = pIdCardNumberIndex;
+        doctorDao = pDoctorDao;
+        slotReservations = pSlotReservations;
+        visitStatisticsDao = pVisitStatisticsDao;
+    }
+
+    /**
+     * Finds a patient by ID, loading the associations selected by the given fetch plan in the same statement.
+     *
+     * @param id   the ID of the patient
+     * @param plan the fetch plan deciding which associations are loaded
+     * @return the found {@link PatientEntity}, or {@code null} if no patient exists with the given ID
+     */
+    @Override
+    public PatientEntity findOne(Long id, PatientFetchPlan plan) {
+        return entityManager.find(PatientEntity.class, id,
+                Collections.singletonMap(QueryHints.HINT_FETCHGRAPH, entityManager.getEntityGraph(plan.getGraphName())));
+    }
+
     /**
      * Adds a new visit to a patient by associating a doctor, visit time, and description to the patient.
      * This method creates a new {@link VisitEntity} and links it to the specified patient and doctor.
+     * The patient and doctor are only checked for existence by key and referenced by proxy, and the visit is
+     * persisted on its own, so the patient's visit history is never loaded and the patient version is untouched.
+     * The patient's visit collection is only updated if it has already been loaded in this persistence context.
+     * <p>
+     * The doctor's slot is reserved in {@link VisitSlotReservations} for the rest of the transaction, so a concurrent
+     * booking of the same doctor and time fails fast, while bookings for other doctors proceed without contention.
+     * The unique constraint on the doctor and time rejects double bookings made by other application instances;
+     * the visit is flushed right away so that such a violation surfaces here rather than at commit.
+     * The flush also counts the visit in the visit statistics, through the {@link VisitStatisticsListener}, and
+     * increments the patient's revision, through the {@link PatientRevisionListener}.
      *
      * @param patientId   the ID of the patient to whom the visit will be added
      * @param doctorId    the ID of the doctor associated with the visit
      * @param visitTime   the time at which the visit takes place
      * @param description a description or notes related to the visit
      * @return the created {@link VisitEntity} object representing the new visit
-     * @throws IllegalArgumentException if the patient or doctor is not found
+     * @throws IllegalArgumentException   if the patient or doctor is not found
+     * @throws SlotAlreadyBookedException if the doctor already has a visit at {@code visitTime}
      */
     @Override
     @Transactional
     public VisitEntity addVisitToPatient(Long patientId, Long doctorId, LocalDateTime visitTime, String description) {
-        PatientEntity patient = findOne(patientId);
-        if (patient == null) throw new IllegalArgumentException("Patient not found with ID: " + patientId);
+        if (!exists(patientId)) throw new IllegalArgumentException("Patient not found with ID: " + patientId);
+        if (!doctorDao.exists(doctorId)) throw new IllegalArgumentException("Doctor not found with ID: " + doctorId);
 
-        DoctorEntity doctor = entityManager.find(DoctorEntity.class, doctorId);
-        if (doctor == null) throw new IllegalArgumentException("Doctor not found with ID: " + doctorId);
+        slotReservations.reserveUntilCompletion(doctorId, visitTime);
+        boolean booked = !entityManager.createNamedQuery(VisitEntity.FIND_ID_BY_DOCTOR_ID_AND_TIME)
+                .setParameter("doctorId", doctorId)
+                .setParameter("time", visitTime)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+        if (booked) throw new SlotAlreadyBookedException(doctorId, visitTime);
 
+        PatientEntity patient = entityManager.getReference(PatientEntity.class, patientId);
         VisitEntity visit = new VisitEntity();
         visit.setTime(visitTime);
         visit.setDescription(description);
-        visit.setDoctor(doctor);
+        visit.setDoctor(entityManager.getReference(DoctorEntity.class, doctorId));
         visit.setPatient(patient);
-        patient.getVisits().add(visit);
-        save(patient);
+        try {
+            entityManager.persist(visit);
+            entityManager.flush();
+        } catch (PersistenceException e) {
+            if (isDoctorTimeViolation(e)) throw new SlotAlreadyBookedException(doctorId, visitTime);
+            throw e;
+        }
+        publishChange(PatientEntity.class, Collections.singletonList(patientId));
+
+        if (Hibernate.isInitialized(patient) && Hibernate.isInitialized(patient.getVisits())) {
+            patient.getVisits().add(visit);
+        }
 
         return visit;
     }
@@ -60,13 +155,47 @@ public class PatientDaoImpl extends AbstractDao<PatientEntity, Long> implements
      */
     @Override
     public List<PatientEntity> findByLastName(String lastName) {
-        String jpql = "SELECT p FROM PatientEntity p WHERE p.lastName = :last_name";
-        return entityManager.createQuery(jpql, PatientEntity.class).setParameter("last_name", lastName).getResultList();
+        return findByLastName(lastName, PatientFetchPlan.SUMMARY);
+    }
+
+    /**
+     * Finds patients by their last name, loading the associations selected by the given fetch plan.
+     *
+     * @param lastName the last name of the patient(s) to search for
+     * @param plan     the fetch plan deciding which associations are loaded
+     * @return a list of {@link PatientEntity} objects with the given last name, or an empty list if none are found
+     */
+    @Override
+    public List<PatientEntity> findByLastName(String lastName, PatientFetchPlan plan) {
+        TypedQuery<PatientEntity> query = entityManager.createNamedQuery(PatientEntity.FIND_BY_LAST_NAME, PatientEntity.class).setParameter("lastName", lastName);
+        return getResultList(query, plan);
+    }
+
+    /**
+     * Finds patients whose last name starts with the given prefix, ignoring case and accents.
+     * The prefix is normalised the same way as the stored last names, so the query is an index range scan.
+     *
+     * @param prefix the beginning of the last name
+     * @param limit  the maximum number of patients to return
+     * @return a list of at most {@code limit} matching {@link PatientEntity} objects, or an empty list if none match
+     * @throws IllegalArgumentException if {@code limit} is not positive
+     */
+    @Override
+    public List<PatientEntity> findByLastNamePrefix(String prefix, int limit) {
+        if (limit <= 0) throw new IllegalArgumentException("Limit must be positive: " + limit);
+
+        return entityManager.createNamedQuery(PatientEntity.FIND_BY_LAST_NAME_PREFIX, PatientEntity.class)
+                .setParameter("prefix", NameNormalizer.toPrefixPattern(prefix))
+                .setMaxResults(limit)
+                .getResultList();
     }
 
     /**
      * Finds patients by partial match of their ID card number.
-     * This method retrieves a list of patients whose ID card number contains the provided partial value.
+     * This method retrieves a list of patients whose ID card number contains the provided partial value, ordered by ID.
+     * Fragments of three or more characters are resolved through the {@link IdCardNumberTrigramIndex}, so only the
+     * matching rows are read by primary key; shorter fragments, fragments matching too many patients and lookups
+     * while the index is disabled fall back to a {@code LIKE} scan.
      *
      * @param partialIdCardNumber the partial ID card number to search for
      * @return a list of {@link PatientEntity} objects representing the patients with the given partial ID card number,
@@ -74,8 +203,30 @@ public class PatientDaoImpl extends AbstractDao<PatientEntity, Long> implements
      */
     @Override
     public List<PatientEntity> findPatientsByIdCardNumberContaining(String partialIdCardNumber) {
-        String jpql = "SELECT p FROM PatientEntity p WHERE p.idCardNumber LIKE :partialIdCardNumber";
-        return entityManager.createQuery(jpql, PatientEntity.class).setParameter("partialIdCardNumber", "%" + partialIdCardNumber + "%").getResultList();
+        return findPatientsByIdCardNumberContaining(partialIdCardNumber, PatientFetchPlan.SUMMARY);
+    }
+
+    /**
+     * Finds patients whose ID card number contains the given fragment, loading the associations selected by
+     * the given fetch plan. The rows are located the same way as by {@link #findPatientsByIdCardNumberContaining(String)}.
+     *
+     * @param partialIdCardNumber the partial ID card number to search for
+     * @param plan                the fetch plan deciding which associations are loaded
+     * @return a list of matching {@link PatientEntity} objects ordered by ID, or an empty list if none are found
+     */
+    @Override
+    public List<PatientEntity> findPatientsByIdCardNumberContaining(String partialIdCardNumber, PatientFetchPlan plan) {
+        String pattern = "%" + partialIdCardNumber + "%";
+        Optional<Set<Long>> indexedIds = idCardNumberIndex.findIdsContaining(partialIdCardNumber);
+        if (!indexedIds.isPresent()) {
+            return getResultList(entityManager.createNamedQuery(PatientEntity.FIND_BY_ID_CARD_NUMBER_LIKE, PatientEntity.class).setParameter("pattern", pattern), plan);
+        }
+        if (indexedIds.get().isEmpty()) return new ArrayList<>();
+
+        TypedQuery<PatientEntity> query = entityManager.createNamedQuery(PatientEntity.FIND_BY_IDS_AND_ID_CARD_NUMBER_LIKE, PatientEntity.class)
+                .setParameter("ids", indexedIds.get())
+                .setParameter("pattern", pattern);
+        return getResultList(query, plan);
     }
 
     /**
@@ -88,7 +239,242 @@ public class PatientDaoImpl extends AbstractDao<PatientEntity, Long> implements
      */
     @Override
     public List<PatientEntity> findByGender(char gender) {
-        String jpql = "SELECT p FROM PatientEntity p WHERE p.gender = :gender";
-        return entityManager.createQuery(jpql, PatientEntity.class).setParameter("gender", gender).getResultList();
+        return findByGender(gender, PatientFetchPlan.SUMMARY);
+    }
+
+    /**
+     * Finds patients by their gender, loading the associations selected by the given fetch plan.
+     *
+     * @param gender the gender of the patients to search for
+     * @param plan   the fetch plan deciding which associations are loaded
+     * @return a list of {@link PatientEntity} objects with the given gender, or an empty list if none are found
+     */
+    @Override
+    public List<PatientEntity> findByGender(char gender, PatientFetchPlan plan) {
+        TypedQuery<PatientEntity> query = entityManager.createNamedQuery(PatientEntity.FIND_BY_GENDER, PatientEntity.class).setParameter("gender", gender);
+        return getResultList(query, plan);
+    }
+
+    /**
+     * Reads a patient as a {@link PatientTO} with their address and visits, using constructor-expression projections.
+     * Only the columns shown in the TOs are selected, in one query for the patient and address and one for the visits,
+     * so no entity is loaded into the persistence context.
+     *
+     * @param id the ID of the patient
+     * @return the {@link PatientTO}, or {@code null} if no patient exists with the given ID
+     */
+    @Override
+    public PatientTO findTOById(Long id) {
+        List<PatientTO> patients = entityManager.createNamedQuery(PatientEntity.FIND_TO_BY_ID, PatientTO.class)
+                .setParameter("id", id)
+                .getResultList();
+        if (patients.isEmpty()) return null;
+
+        PatientTO patient = patients.get(0);
+        patient.setVisits(findVisitTOsByPatientId(id));
+        return patient;
+    }
+
+    /**
+     * Reads the version state of a patient with a primary key lookup on the patient row alone,
+     * so its cost does not depend on the number of visits.
+     *
+     * @param id the ID of the patient
+     * @return the {@link PatientVersionTO}, or {@code null} if no patient exists with the given ID
+     */
+    @Override
+    public PatientVersionTO findVersionById(Long id) {
+        List<PatientVersionTO> versions = entityManager.createNamedQuery(PatientEntity.FIND_VERSION_BY_ID, PatientVersionTO.class)
+                .setParameter("id", id)
+                .getResultList();
+        return versions.isEmpty() ? null : versions.get(0);
+    }
+
+    /**
+     * Reads all visits of a patient as {@link VisitTO} objects ordered by visit time and ID.
+     * The doctor and treatment columns are joined in the same query, so no entity is loaded.
+     *
+     * @param patientId the ID of the patient whose visits are read
+     * @return a list of {@link VisitTO} objects, or an empty list if the patient has no visits or does not exist
+     */
+    @Override
+    public List<VisitTO> findVisitTOsByPatientId(Long patientId) {
+        return entityManager.createNamedQuery(VisitEntity.FIND_TOS_BY_PATIENT_ID, VisitTO.class)
+                .setParameter("patientId", patientId)
+                .getResultList();
+    }
+
+    /**
+     * Retrieves one page of a patient's visits ordered by visit time and ID, using keyset pagination.
+     * The {@code (patient_id, time, id)} index lets the query seek directly to the row after the cursor,
+     * so every page costs the same regardless of how many visits precede it.
+     *
+     * @param patientId the ID of the patient whose visits are read
+     * @param after     the cursor of the previous page, or {@code null} to read the first page
+     * @param size      the maximum number of visits in the page
+     * @return the page of visits
+     * @throws IllegalArgumentException if {@code size} is not positive or the cursor is malformed
+     */
+    @Override
+    public KeysetPage<VisitTO> findVisitsByPatientId(Long patientId, PageCursor after, int size) {
+        if (size <= 0) throw new IllegalArgumentException("Page size must be positive: " + size);
+
+        String queryName = after != null ? VisitEntity.FIND_NEXT_PAGE_BY_PATIENT_ID : VisitEntity.FIND_FIRST_PAGE_BY_PATIENT_ID;
+        TypedQuery<VisitTO> query = entityManager.createNamedQuery(queryName, VisitTO.class)
+                .setParameter("patientId", patientId)
+                .setMaxResults(size + 1);
+        if (after != null) {
+            try {
+                query.setParameter("lastTime", LocalDateTime.parse(after.getKey(0)));
+                query.setParameter("lastId", Long.valueOf(after.getKey(1)));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Malformed page cursor", e);
+            }
+        }
+
+        return KeysetPage.of(query.getResultList(), size, visit -> PageCursor.of(visit.getTime(), visit.getId()));
+    }
+
+    /**
+     * Deletes the patients with the given IDs together with their visits, the visits' treatments and the addresses.
+     * Regardless of the number of patients or visits, this issues at most three queries for the address, visit and
+     * treatment IDs and four set-based DELETE statements for visits, treatments, patients and addresses, without
+     * loading any entity. Treatments still used by visits of other patients are kept.
+     * The deleted visits are first subtracted from the visit statistics with one grouped query.
+     *
+     * @param ids the IDs of the patients to be deleted
+     * @return the number of deleted patients
+     */
+    @Override
+    @Transactional
+    public int deleteByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) return 0;
+
+        Query patientDelete = entityManager.createNamedQuery(PatientEntity.DELETE_BY_IDS).setParameter("ids", ids);
+        return deleteWithVisitsAndAddresses(ids, patientDelete);
+    }
+
+    /**
+     * Deletes all patients together with their visits, the visits' treatments and the addresses, the same way as
+     * {@link #deleteByIds(Collection)}. The patient IDs are read first and deleted in chunks, so that every statement
+     * binds a bounded {@code IN} list and the visit statistics are decremented along the way.
+     */
+    @Override
+    @Transactional
+    public void deleteAll() {
+        List<Long> ids = entityManager.createNamedQuery(PatientEntity.FIND_IDS, Long.class).getResultList();
+        for (int from = 0; from < ids.size(); from += DELETE_ALL_CHUNK_SIZE) {
+            deleteByIds(ids.subList(from, Math.min(ids.size(), from + DELETE_ALL_CHUNK_SIZE)));
+        }
+    }
+
+    /**
+     * Deletes a patient together with their visits and address, provided the patient still has the given version.
+     * The version is checked by the patient DELETE statement itself; if it removes no row, the exception
+     * rolls back the visit deletion that preceded it.
+     *
+     * @param patientId the ID of the patient to be deleted
+     * @param version   the version of the patient the caller expects to delete
+     * @throws OptimisticLockException if no patient with the given ID and version exists
+     */
+    @Override
+    @Transactional
+    public void deletePatient(Long patientId, long version) {
+        Query patientDelete = entityManager.createNamedQuery(PatientEntity.DELETE_BY_ID_AND_VERSION)
+                .setParameter("id", patientId)
+                .setParameter("version", version);
+        if (deleteWithVisitsAndAddresses(Collections.singletonList(patientId), patientDelete) == 0) {
+            throw new OptimisticLockException("Patient with ID " + patientId + " and version " + version + " not found");
+        }
+    }
+
+    /**
+     * Removes patients, their visits, the visits' treatments and the patients' addresses with set-based statements,
+     * as the cascades of {@link PatientEntity} and {@link VisitEntity} would, except that a treatment shared with a
+     * visit of another patient is kept. Only the deleted entities are then detached from the persistence context
+     * and evicted from the second-level cache.
+     *
+     * @param ids           the IDs of the patients to be deleted
+     * @param patientDelete the DELETE statement removing the patients themselves, possibly with a version check
+     * @return the number of deleted patients
+     */
+    private int deleteWithVisitsAndAddresses(Collection<Long> ids, Query patientDelete) {
+        entityManager.flush();
+
+        List<Long> addressIds = entityManager.createNamedQuery(PatientEntity.FIND_ADDRESS_IDS, Long.class)
+                .setParameter("ids", ids)
+                .getResultList();
+
+        List<Long> visitIds = new ArrayList<>();
+        Set<Long> treatmentIds = new HashSet<>();
+        List<Object[]> visits = entityManager.createNamedQuery(VisitEntity.FIND_IDS_AND_TREATMENT_IDS_BY_PATIENT_IDS, Object[].class)
+                .setParameter("patientIds", ids)
+                .getResultList();
+        for (Object[] visit : visits) {
+            visitIds.add((Long) visit[0]);
+            if (visit[1] != null) treatmentIds.add((Long) visit[1]);
+        }
+        if (!treatmentIds.isEmpty()) {
+            treatmentIds.removeAll(entityManager.createNamedQuery(VisitEntity.FIND_TREATMENT_IDS_SHARED_WITH_OTHER_PATIENTS, Long.class)
+                    .setParameter("treatmentIds", treatmentIds)
+                    .setParameter("patientIds", ids)
+                    .getResultList());
+        }
+
+        visitStatisticsDao.recordRemovedVisitsOfPatients(ids);
+        entityManager.createNamedQuery(VisitEntity.DELETE_BY_PATIENT_IDS)
+                .setParameter("patientIds", ids)
+                .executeUpdate();
+
+        if (!treatmentIds.isEmpty()) {
+            entityManager.createNamedQuery(VisitEntity.DELETE_TREATMENTS_BY_IDS)
+                    .setParameter("ids", treatmentIds)
+                    .executeUpdate();
+        }
+
+        int deleted = patientDelete.executeUpdate();
+
+        if (deleted > 0 && !addressIds.isEmpty()) {
+            entityManager.createNamedQuery(PatientEntity.DELETE_ADDRESSES_BY_IDS)
+                    .setParameter("ids", addressIds)
+                    .executeUpdate();
+        }
+
+        detach(PatientEntity.class, ids);
+        detach(VisitEntity.class, visitIds);
+        detach(MedicalTreatmentEntity.class, treatmentIds);
+        detach(AddressEntity.class, addressIds);
+        evictFromSharedCache(MedicalTreatmentEntity.class, treatmentIds);
+        evictFromSharedCache(AddressEntity.class, addressIds);
+        idCardNumberIndex.removeAfterCommit(ids);
+        publishChange(PatientEntity.class, ids);
+        return deleted;
+    }
+
+    /**
+     * Tells whether the given exception was caused by the unique constraint on the visit's doctor and time.
+     *
+     * @param e the exception thrown while inserting a visit
+     * @return {@code true} if the insert violated the doctor and time constraint
+     */
+    private static boolean isDoctorTimeViolation(PersistenceException e) {
+        if (!(e.getCause() instanceof ConstraintViolationException)) return false;
+
+        String constraintName = ((ConstraintViolationException) e.getCause()).getConstraintName();
+        return constraintName != null && constraintName.toLowerCase(Locale.ROOT).contains(VisitEntity.UNIQUE_DOCTOR_TIME);
+    }
+
+    /**
+     * Runs a patient query with the entity graph of the given fetch plan.
+     * Plans that fetch the visits collection join one row per visit, so the duplicated patients are removed
+     * while keeping the query order.
+     *
+     * @param query the query to be run
+     * @param plan  the fetch plan deciding which associations are loaded
+     * @return the distinct patients in query order
+     */
+    private List<PatientEntity> getResultList(TypedQuery<PatientEntity> query, PatientFetchPlan plan) {
+        List<PatientEntity> patients = query.setHint(QueryHints.HINT_FETCHGRAPH, entityManager.getEntityGraph(plan.getGraphName())).getResultList();
+        return plan.fetchesVisits() ? new ArrayList<>(new LinkedHashSet<>(patients)) : patients;
     }
 }
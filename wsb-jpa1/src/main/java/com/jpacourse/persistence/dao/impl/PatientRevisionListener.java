@@ -0,0 +1,151 @@
+package com.jpacourse.persistence.dao.impl;
+
+import com.jpacourse.persistence.entity.AddressEntity;
+import com.jpacourse.persistence.entity.DoctorEntity;
+import com.jpacourse.persistence.entity.MedicalTreatmentEntity;
+import com.jpacourse.persistence.entity.PatientEntity;
+import com.jpacourse.persistence.entity.VisitEntity;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Increments the revision of every patient whose representation embeds a written entity: the patient of an inserted,
+ * updated or deleted visit, the patient living at an updated address, and the patients with a visit of an updated
+ * doctor or treatment. None of these writes changes the patient's optimistic-locking version, so without the revision
+ * the ETag of the patient would stay the same while the response changes.
+ * <p>
+ * The written IDs are collected per session while a flush executes; once it has completed, each kind of write costs
+ * one set-based {@code UPDATE} in the same transaction, however many rows were written.
+ */
+@Component
+public class PatientRevisionListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+        FlushEventListener, AutoFlushEventListener {
+
+    private static final Map<Class<?>, String> INCREMENT_QUERIES = new LinkedHashMap<>();
+
+    static {
+        INCREMENT_QUERIES.put(PatientEntity.class, PatientEntity.INCREMENT_REVISION_BY_IDS);
+        INCREMENT_QUERIES.put(AddressEntity.class, PatientEntity.INCREMENT_REVISION_BY_ADDRESS_IDS);
+        INCREMENT_QUERIES.put(DoctorEntity.class, PatientEntity.INCREMENT_REVISION_BY_DOCTOR_IDS);
+        INCREMENT_QUERIES.put(MedicalTreatmentEntity.class, PatientEntity.INCREMENT_REVISION_BY_TREATMENT_IDS);
+    }
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final Map<EventSource, Map<Class<?>, Set<Serializable>>> pending = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Constructs a {@link PatientRevisionListener} for the given {@link EntityManagerFactory}.
+     *
+     * @param entityManagerFactory the {@link EntityManagerFactory} whose writes are tracked
+     */
+    public PatientRevisionListener(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    /**
+     * Registers the listener for inserts, updates and deletes, and after the built-in flush listeners.
+     */
+    @PostConstruct
+    void registerListeners() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.FLUSH, this);
+        registry.appendListeners(EventType.AUTO_FLUSH, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof VisitEntity) {
+            collectPatientOf(event.getSession(), (VisitEntity) event.getEntity());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        Object entity = event.getEntity();
+        if (entity instanceof VisitEntity) {
+            collectPatientOf(event.getSession(), (VisitEntity) entity);
+        } else if (entity instanceof AddressEntity || entity instanceof DoctorEntity || entity instanceof MedicalTreatmentEntity) {
+            collect(event.getSession(), entity.getClass(), event.getId());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof VisitEntity) {
+            collectPatientOf(event.getSession(), (VisitEntity) event.getEntity());
+        }
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+        apply(event.getSession());
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) {
+        apply(event.getSession());
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void collectPatientOf(EventSource session, VisitEntity visit) {
+        PatientEntity patient = visit.getPatient();
+        if (patient == null) return;
+
+        Serializable patientId = patient instanceof HibernateProxy
+                ? ((HibernateProxy) patient).getHibernateLazyInitializer().getIdentifier()
+                : patient.getId();
+        collect(session, PatientEntity.class, patientId);
+    }
+
+    private void collect(EventSource session, Class<?> entityType, Serializable id) {
+        if (id == null) return;
+
+        pending.computeIfAbsent(session, key -> new LinkedHashMap<>())
+                .computeIfAbsent(entityType, key -> new HashSet<>())
+                .add(id);
+    }
+
+    private void apply(EventSource session) {
+        Map<Class<?>, Set<Serializable>> written = pending.remove(session);
+        if (written == null) return;
+
+        written.forEach((entityType, ids) -> session.createNamedQuery(INCREMENT_QUERIES.get(entityType))
+                .setParameter("ids", ids)
+                .executeUpdate());
+    }
+}
@@ -0,0 +1,149 @@
+package com.jpacourse.persistence.dao.impl;
+
+import com.jpacourse.persistence.enums.Specialization;
+import com.jpacourse.persistence.enums.StatisticsDimension;
+import com.jpacourse.persistence.enums.TreatmentType;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Applies changes to visit statistics buckets on the connection of the current transaction.
+ * Every bucket is changed with a single {@code UPDATE ... SET visit_count = visit_count + ?}, so concurrent
+ * bookings never read-modify-write a counter. A missing bucket is inserted under a savepoint: if a concurrent
+ * transaction inserted the same bucket first, only the insert is rolled back and the change is applied by
+ * a second update, so neither booking fails and no second connection is taken from the pool.
+ * <p>
+ * The statements run through {@link Session#doWork}, bypassing the persistence context, which never holds buckets.
+ */
+@Component
+public class VisitStatisticsBuckets {
+
+    private static final String UPDATE_BUCKET = "UPDATE visit_statistics SET visit_count = visit_count + ?"
+            + " WHERE dimension = ? AND dimension_key = ? AND month_start = ?";
+
+    private static final String INSERT_BUCKET = "INSERT INTO visit_statistics (dimension, dimension_key, month_start, visit_count)"
+            + " VALUES (?, ?, ?, ?)";
+
+    // SQLState class of integrity constraint violations: 23505 on H2 and PostgreSQL, 23000 on MySQL
+    private static final String INTEGRITY_CONSTRAINT_VIOLATION = "23";
+
+    /**
+     * Adds the given deltas to their buckets, creating the buckets that do not exist yet.
+     *
+     * @param session the session whose connection and transaction are used
+     * @param deltas  the change of the visit count of each bucket
+     */
+    public void add(Session session, Map<Bucket, Long> deltas) {
+        if (deltas.isEmpty()) return;
+
+        session.doWork(connection -> {
+            try (PreparedStatement update = connection.prepareStatement(UPDATE_BUCKET)) {
+                for (Map.Entry<Bucket, Long> delta : deltas.entrySet()) {
+                    if (delta.getValue() == 0) continue;
+                    if (update(update, delta.getKey(), delta.getValue()) == 0) {
+                        insert(connection, update, delta.getKey(), delta.getValue());
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Adds a change of visits to the buckets of their doctor, the doctor's specialization and their treatment type.
+     *
+     * @param deltas         the bucket changes to add to
+     * @param doctorId       the ID of the visits' doctor
+     * @param specialization the specialization of the visits' doctor
+     * @param treatmentType  the type of the visits' treatment, or null if they have none
+     * @param monthStart     the first day of the month of the visits
+     * @param delta          the number of visits added, negative if they were removed
+     */
+    public static void count(Map<Bucket, Long> deltas, Long doctorId, Specialization specialization, TreatmentType treatmentType,
+                             LocalDate monthStart, long delta) {
+        deltas.merge(new Bucket(StatisticsDimension.DOCTOR, String.valueOf(doctorId), monthStart), delta, Long::sum);
+        deltas.merge(new Bucket(StatisticsDimension.SPECIALIZATION, specialization.name(), monthStart), delta, Long::sum);
+        if (treatmentType != null) {
+            deltas.merge(new Bucket(StatisticsDimension.TREATMENT_TYPE, treatmentType.name(), monthStart), delta, Long::sum);
+        }
+    }
+
+    private static void insert(Connection connection, PreparedStatement update, Bucket bucket, long delta) throws SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_BUCKET)) {
+            insert.setString(1, bucket.dimension.name());
+            insert.setString(2, bucket.dimensionKey);
+            insert.setDate(3, Date.valueOf(bucket.monthStart));
+            insert.setLong(4, delta);
+            insert.executeUpdate();
+        } catch (SQLException e) {
+            if (e.getSQLState() == null || !e.getSQLState().startsWith(INTEGRITY_CONSTRAINT_VIOLATION)) throw e;
+
+            connection.rollback(savepoint);
+            if (update(update, bucket, delta) == 0) {
+                throw new IllegalStateException("Bucket " + bucket + " was neither inserted nor updated", e);
+            }
+            return;
+        }
+        connection.releaseSavepoint(savepoint);
+    }
+
+    private static int update(PreparedStatement update, Bucket bucket, long delta) throws SQLException {
+        update.setLong(1, delta);
+        update.setString(2, bucket.dimension.name());
+        update.setString(3, bucket.dimensionKey);
+        update.setDate(4, Date.valueOf(bucket.monthStart));
+        return update.executeUpdate();
+    }
+
+    /**
+     * Identifies a bucket by its dimension, the counted key and the first day of its month.
+     */
+    public static final class Bucket {
+
+        private final StatisticsDimension dimension;
+
+        private final String dimensionKey;
+
+        private final LocalDate monthStart;
+
+        /**
+         * Constructs a {@link Bucket}.
+         *
+         * @param dimension    the dimension counted by the bucket
+         * @param dimensionKey the doctor ID, specialization or treatment type counted by the bucket
+         * @param monthStart   the first day of the month of the bucket
+         */
+        public Bucket(StatisticsDimension dimension, String dimensionKey, LocalDate monthStart) {
+            this.dimension = dimension;
+            this.dimensionKey = dimensionKey;
+            this.monthStart = monthStart;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Bucket)) return false;
+            Bucket bucket = (Bucket) o;
+            return dimension == bucket.dimension && dimensionKey.equals(bucket.dimensionKey) && monthStart.equals(bucket.monthStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dimension, dimensionKey, monthStart);
+        }
+
+        @Override
+        public String toString() {
+            return dimension + "/" + dimensionKey + "/" + monthStart;
+        }
+    }
+}
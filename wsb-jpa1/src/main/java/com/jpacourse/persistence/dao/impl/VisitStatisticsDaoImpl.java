@@ -0,0 +1,81 @@
+package com.jpacourse.persistence.dao.impl;
+
+import com.jpacourse.dto.VisitStatisticsTO;
+import com.jpacourse.persistence.dao.VisitStatisticsDao;
+import com.jpacourse.persistence.dao.impl.VisitStatisticsBuckets.Bucket;
+import com.jpacourse.persistence.entity.VisitEntity;
+import com.jpacourse.persistence.entity.VisitStatisticsEntity;
+import com.jpacourse.persistence.enums.Specialization;
+import com.jpacourse.persistence.enums.StatisticsDimension;
+import com.jpacourse.persistence.enums.TreatmentType;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of the {@link VisitStatisticsDao} interface.
+ * Visits written through the persistence context are counted by the {@link VisitStatisticsListener};
+ * this DAO counts the visits removed by bulk statements and reads the buckets.
+ * The counters are changed through {@link VisitStatisticsBuckets} in the caller's transaction.
+ */
+@Repository
+public class VisitStatisticsDaoImpl extends AbstractDao<VisitStatisticsEntity, Long> implements VisitStatisticsDao {
+
+    private final VisitStatisticsBuckets buckets;
+
+    /**
+     * Constructs a {@link VisitStatisticsDaoImpl} with the given {@link VisitStatisticsBuckets}.
+     *
+     * @param pBuckets the writer of the bucket counters
+     */
+    public VisitStatisticsDaoImpl(VisitStatisticsBuckets pBuckets) {
+        buckets = pBuckets;
+    }
+
+    /**
+     * Removes the visits of the given patients from their buckets.
+     * The visits are counted per doctor, treatment type and month in one grouped query, so the number of
+     * counter updates depends on the number of affected buckets, not on the number of visits.
+     *
+     * @param patientIds the IDs of the patients whose visits are about to be deleted
+     */
+    @Override
+    @Transactional
+    public void recordRemovedVisitsOfPatients(Collection<Long> patientIds) {
+        List<Object[]> groups = entityManager.createNamedQuery(VisitEntity.COUNT_BY_BUCKET_FOR_PATIENT_IDS, Object[].class)
+                .setParameter("patientIds", patientIds)
+                .getResultList();
+
+        Map<Bucket, Long> deltas = new LinkedHashMap<>();
+        for (Object[] group : groups) {
+            LocalDate monthStart = LocalDate.of(((Number) group[3]).intValue(), ((Number) group[4]).intValue(), 1);
+            VisitStatisticsBuckets.count(deltas, (Long) group[0], (Specialization) group[1], (TreatmentType) group[2],
+                    monthStart, -((Number) group[5]).longValue());
+        }
+        buckets.add(entityManager.unwrap(Session.class), deltas);
+    }
+
+    /**
+     * Reads the buckets of one dimension for a range of months, ordered by month and key.
+     *
+     * @param dimension the dimension to read
+     * @param from      the first month, inclusive
+     * @param to        the last month, inclusive
+     * @return a list of {@link VisitStatisticsTO} objects, or an empty list if no visits were counted in the range
+     */
+    @Override
+    public List<VisitStatisticsTO> findByDimension(StatisticsDimension dimension, YearMonth from, YearMonth to) {
+        return entityManager.createNamedQuery(VisitStatisticsEntity.FIND_TOS_BY_DIMENSION, VisitStatisticsTO.class)
+                .setParameter("dimension", dimension)
+                .setParameter("from", from.atDay(1))
+                .setParameter("to", to.atDay(1))
+                .getResultList();
+    }
+}
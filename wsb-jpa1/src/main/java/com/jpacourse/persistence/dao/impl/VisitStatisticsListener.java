@@ -0,0 +1,171 @@
+package com.jpacourse.persistence.dao.impl;
+
+import com.jpacourse.persistence.dao.impl.VisitStatisticsBuckets.Bucket;
+import com.jpacourse.persistence.entity.DoctorEntity;
+import com.jpacourse.persistence.entity.MedicalTreatmentEntity;
+import com.jpacourse.persistence.entity.VisitEntity;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.tuple.entity.EntityMetamodel;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Keeps the visit statistics in step with every visit written through the persistence context,
+ * whether it was booked by {@link PatientDaoImpl}, cascaded from a saved, merged or removed patient,
+ * or orphan-removed from a patient's visit collection.
+ * <p>
+ * Inserted and deleted visits, and updated visits whose time, doctor or treatment changed, are collected per session
+ * while a flush executes. Once the flush has completed, the collected changes are added to the buckets with
+ * {@link VisitStatisticsBuckets} on the same connection, so the counters commit or roll back with the visits.
+ * Bulk deletes bypass these events and are counted by {@link VisitStatisticsDaoImpl#recordRemovedVisitsOfPatients}.
+ */
+@Component
+public class VisitStatisticsListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+        FlushEventListener, AutoFlushEventListener {
+
+    private static final String[] COUNTED_PROPERTIES = {"time", "doctor", "medicalTreatment"};
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final VisitStatisticsBuckets buckets;
+
+    private final Map<EventSource, List<VisitChange>> pending = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Constructs a {@link VisitStatisticsListener} for the given {@link EntityManagerFactory}.
+     *
+     * @param entityManagerFactory the {@link EntityManagerFactory} whose visit changes are counted
+     * @param buckets              the writer of the bucket counters
+     */
+    public VisitStatisticsListener(EntityManagerFactory entityManagerFactory, VisitStatisticsBuckets buckets) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.buckets = buckets;
+    }
+
+    /**
+     * Registers the listener for visit inserts, updates and deletes, and after the built-in flush listeners.
+     */
+    @PostConstruct
+    void registerListeners() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.FLUSH, this);
+        registry.appendListeners(EventType.AUTO_FLUSH, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof VisitEntity) {
+            VisitEntity visit = (VisitEntity) event.getEntity();
+            collect(event.getSession(), visit.getTime(), visit.getDoctor(), visit.getMedicalTreatment(), 1);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof VisitEntity) || event.getOldState() == null) return;
+
+        EntityMetamodel metamodel = event.getPersister().getEntityMetamodel();
+        int[] indexes = new int[COUNTED_PROPERTIES.length];
+        boolean changed = false;
+        for (int i = 0; i < COUNTED_PROPERTIES.length; i++) {
+            indexes[i] = metamodel.getPropertyIndex(COUNTED_PROPERTIES[i]);
+            changed |= event.getOldState()[indexes[i]] != event.getState()[indexes[i]];
+        }
+        if (!changed) return;
+
+        Object[] oldState = event.getOldState();
+        collect(event.getSession(), (LocalDateTime) oldState[indexes[0]], (DoctorEntity) oldState[indexes[1]],
+                (MedicalTreatmentEntity) oldState[indexes[2]], -1);
+        VisitEntity visit = (VisitEntity) event.getEntity();
+        collect(event.getSession(), visit.getTime(), visit.getDoctor(), visit.getMedicalTreatment(), 1);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof VisitEntity) {
+            VisitEntity visit = (VisitEntity) event.getEntity();
+            collect(event.getSession(), visit.getTime(), visit.getDoctor(), visit.getMedicalTreatment(), -1);
+        }
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+        apply(event.getSession());
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) {
+        apply(event.getSession());
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void collect(EventSource session, LocalDateTime time, DoctorEntity doctor, MedicalTreatmentEntity treatment, long delta) {
+        if (time == null || doctor == null) return;
+
+        pending.computeIfAbsent(session, key -> new ArrayList<>())
+                .add(new VisitChange(time.toLocalDate().withDayOfMonth(1), doctor, treatment, delta));
+    }
+
+    private void apply(EventSource session) {
+        List<VisitChange> changes = pending.remove(session);
+        if (changes == null) return;
+
+        Map<Bucket, Long> deltas = new LinkedHashMap<>();
+        for (VisitChange change : changes) {
+            VisitStatisticsBuckets.count(deltas, change.doctor.getId(), change.doctor.getSpecialization(),
+                    change.treatment != null ? change.treatment.getType() : null, change.monthStart, change.delta);
+        }
+        buckets.add(session, deltas);
+    }
+
+    private static final class VisitChange {
+
+        private final LocalDate monthStart;
+
+        private final DoctorEntity doctor;
+
+        private final MedicalTreatmentEntity treatment;
+
+        private final long delta;
+
+        private VisitChange(LocalDate monthStart, DoctorEntity doctor, MedicalTreatmentEntity treatment, long delta) {
+            this.monthStart = monthStart;
+            this.doctor = doctor;
+            this.treatment = treatment;
+            this.delta = delta;
+        }
+    }
+}
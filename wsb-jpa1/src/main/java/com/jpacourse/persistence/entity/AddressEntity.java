@@ -1,5 +1,8 @@
 package com.jpacourse.persistence.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 
 /**
@@ -7,12 +10,22 @@ import javax.persistence.*;
  */
 @Entity
 @Table(name = "ADDRESS")
+@NamedQuery(name = AddressEntity.FIND_VERSION_BY_ID, query = "SELECT a.version FROM AddressEntity a WHERE a.id = :id")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "address")
 public class AddressEntity {
 
+    public static final String FIND_VERSION_BY_ID = "AddressEntity.findVersionById";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "address_seq")
+    @SequenceGenerator(name = "address_seq", sequenceName = "address_seq", initialValue = 1000, allocationSize = 50)
     private Long id;
 
+    @Version
+    @Column(name = "version", columnDefinition = "integer DEFAULT 0", nullable = false)
+    private long version = 0L;
+
     private String city;
 
     private String addressLine1;
@@ -61,4 +74,11 @@ public class AddressEntity {
         this.postalCode = postalCode;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
 }
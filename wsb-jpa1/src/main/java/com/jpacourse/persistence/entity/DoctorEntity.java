@@ -1,15 +1,25 @@
 package com.jpacourse.persistence.entity;
 
 import com.jpacourse.persistence.enums.Specialization;
+import com.jpacourse.persistence.util.NameNormalizer;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 
 @Entity
-@Table(name = "DOCTOR")
+@Table(name = "DOCTOR", indexes = @Index(name = "idx_doctor_last_name_normalized", columnList = "lastNameNormalized"))
+@NamedQuery(name = DoctorEntity.FIND_BY_LAST_NAME_PREFIX,
+        query = "SELECT d FROM DoctorEntity d WHERE d.lastNameNormalized LIKE :prefix ESCAPE '!' ORDER BY d.lastNameNormalized, d.id")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "doctor")
 public class DoctorEntity {
 
+    public static final String FIND_BY_LAST_NAME_PREFIX = "DoctorEntity.findByLastNamePrefix";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "doctor_seq")
+    @SequenceGenerator(name = "doctor_seq", sequenceName = "doctor_seq", initialValue = 1000, allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -18,6 +28,9 @@ public class DoctorEntity {
     @Column(nullable = false)
     private String lastName;
 
+    @Column(nullable = false)
+    private String lastNameNormalized;
+
     @Column(nullable = false)
     private String telephoneNumber;
 
@@ -30,7 +43,7 @@ public class DoctorEntity {
     @Enumerated(EnumType.STRING)
     private Specialization specialization;
 
-    @ManyToOne(cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @ManyToOne(cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.LAZY)
     @JoinColumn(name = "address_id", referencedColumnName = "id", nullable = false)
     private AddressEntity address;
 
@@ -56,6 +69,11 @@ public class DoctorEntity {
 
     public void setLastName(String lastName) {
         this.lastName = lastName;
+        this.lastNameNormalized = NameNormalizer.normalize(lastName);
+    }
+
+    public String getLastNameNormalized() {
+        return lastNameNormalized;
     }
 
     public String getTelephoneNumber() {
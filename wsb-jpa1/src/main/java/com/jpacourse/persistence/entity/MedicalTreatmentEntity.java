@@ -1,16 +1,21 @@
 package com.jpacourse.persistence.entity;
 
 import com.jpacourse.persistence.enums.TreatmentType;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.List;
 
 @Entity
 @Table(name = "MEDICAL_TREATMENT")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "medical-treatment")
 public class MedicalTreatmentEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "medical_treatment_seq")
+    @SequenceGenerator(name = "medical_treatment_seq", sequenceName = "medical_treatment_seq", initialValue = 1000, allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -1,16 +1,89 @@
 package com.jpacourse.persistence.entity;
 
+import com.jpacourse.persistence.util.NameNormalizer;
+import org.hibernate.annotations.OptimisticLock;
+
 import javax.persistence.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "PATIENT")
+@Table(name = "PATIENT", indexes = @Index(name = "idx_patient_last_name_normalized", columnList = "lastNameNormalized"))
+@NamedEntityGraphs({
+        @NamedEntityGraph(name = PatientEntity.GRAPH_SUMMARY),
+        @NamedEntityGraph(name = PatientEntity.GRAPH_WITH_ADDRESS, attributeNodes = @NamedAttributeNode("address")),
+        @NamedEntityGraph(name = PatientEntity.GRAPH_FULL_DOSSIER,
+                attributeNodes = {
+                        @NamedAttributeNode("address"),
+                        @NamedAttributeNode(value = "visits", subgraph = "visit")
+                },
+                subgraphs = {
+                        @NamedSubgraph(name = "visit", attributeNodes = {
+                                @NamedAttributeNode(value = "doctor", subgraph = "doctor"),
+                                @NamedAttributeNode("medicalTreatment")
+                        }),
+                        @NamedSubgraph(name = "doctor", attributeNodes = @NamedAttributeNode("address"))
+                })
+})
+@NamedQueries({
+        @NamedQuery(name = PatientEntity.FIND_TO_BY_ID,
+                query = "SELECT new com.jpacourse.dto.PatientTO(p.id, p.firstName, p.lastName, p.telephoneNumber, p.email,"
+                        + " p.patientNumber, p.dateOfBirth, p.gender, a.id, a.city, a.addressLine1, a.addressLine2, a.postalCode)"
+                        + " FROM PatientEntity p LEFT JOIN p.address a WHERE p.id = :id"),
+        @NamedQuery(name = PatientEntity.FIND_VERSION_BY_ID,
+                query = "SELECT new com.jpacourse.dto.PatientVersionTO(p.id, p.version, p.revision) FROM PatientEntity p WHERE p.id = :id"),
+        @NamedQuery(name = PatientEntity.FIND_BY_LAST_NAME, query = "SELECT p FROM PatientEntity p WHERE p.lastName = :lastName"),
+        @NamedQuery(name = PatientEntity.FIND_BY_ID_CARD_NUMBER_LIKE, query = "SELECT p FROM PatientEntity p WHERE p.idCardNumber LIKE :pattern ORDER BY p.id"),
+        @NamedQuery(name = PatientEntity.FIND_BY_IDS_AND_ID_CARD_NUMBER_LIKE,
+                query = "SELECT p FROM PatientEntity p WHERE p.id IN :ids AND p.idCardNumber LIKE :pattern ORDER BY p.id"),
+        @NamedQuery(name = PatientEntity.FIND_ID_CARD_NUMBERS, query = "SELECT p.id, p.idCardNumber FROM PatientEntity p"),
+        @NamedQuery(name = PatientEntity.FIND_IDS, query = "SELECT p.id FROM PatientEntity p ORDER BY p.id"),
+        @NamedQuery(name = PatientEntity.FIND_BY_LAST_NAME_PREFIX,
+                query = "SELECT p FROM PatientEntity p WHERE p.lastNameNormalized LIKE :prefix ESCAPE '!' ORDER BY p.lastNameNormalized, p.id"),
+        @NamedQuery(name = PatientEntity.FIND_BY_GENDER, query = "SELECT p FROM PatientEntity p WHERE p.gender = :gender"),
+        @NamedQuery(name = PatientEntity.FIND_ADDRESS_IDS, query = "SELECT a.id FROM PatientEntity p JOIN p.address a WHERE p.id IN :ids"),
+        @NamedQuery(name = PatientEntity.DELETE_BY_IDS, query = "DELETE FROM PatientEntity p WHERE p.id IN :ids"),
+        @NamedQuery(name = PatientEntity.DELETE_BY_ID_AND_VERSION, query = "DELETE FROM PatientEntity p WHERE p.id = :id AND p.version = :version"),
+        @NamedQuery(name = PatientEntity.DELETE_ADDRESSES_BY_IDS, query = "DELETE FROM AddressEntity a WHERE a.id IN :ids"),
+        @NamedQuery(name = PatientEntity.INCREMENT_REVISION_BY_IDS,
+                query = "UPDATE PatientEntity p SET p.revision = p.revision + 1 WHERE p.id IN :ids"),
+        @NamedQuery(name = PatientEntity.INCREMENT_REVISION_BY_ADDRESS_IDS,
+                query = "UPDATE PatientEntity p SET p.revision = p.revision + 1 WHERE p.address.id IN :ids"),
+        @NamedQuery(name = PatientEntity.INCREMENT_REVISION_BY_DOCTOR_IDS,
+                query = "UPDATE PatientEntity p SET p.revision = p.revision + 1"
+                        + " WHERE p.id IN (SELECT v.patient.id FROM VisitEntity v WHERE v.doctor.id IN :ids)"),
+        @NamedQuery(name = PatientEntity.INCREMENT_REVISION_BY_TREATMENT_IDS,
+                query = "UPDATE PatientEntity p SET p.revision = p.revision + 1"
+                        + " WHERE p.id IN (SELECT v.patient.id FROM VisitEntity v WHERE v.medicalTreatment.id IN :ids)")
+})
 public class PatientEntity {
 
+    public static final String GRAPH_SUMMARY = "PatientEntity.summary";
+    public static final String GRAPH_WITH_ADDRESS = "PatientEntity.withAddress";
+    public static final String GRAPH_FULL_DOSSIER = "PatientEntity.fullDossier";
+
+    public static final String FIND_TO_BY_ID = "PatientEntity.findTOById";
+    public static final String FIND_VERSION_BY_ID = "PatientEntity.findVersionById";
+    public static final String FIND_BY_LAST_NAME = "PatientEntity.findByLastName";
+    public static final String FIND_BY_LAST_NAME_PREFIX = "PatientEntity.findByLastNamePrefix";
+    public static final String FIND_BY_ID_CARD_NUMBER_LIKE = "PatientEntity.findByIdCardNumberLike";
+    public static final String FIND_BY_IDS_AND_ID_CARD_NUMBER_LIKE = "PatientEntity.findByIdsAndIdCardNumberLike";
+    public static final String FIND_ID_CARD_NUMBERS = "PatientEntity.findIdCardNumbers";
+    public static final String FIND_IDS = "PatientEntity.findIds";
+    public static final String FIND_BY_GENDER = "PatientEntity.findByGender";
+    public static final String FIND_ADDRESS_IDS = "PatientEntity.findAddressIds";
+    public static final String DELETE_BY_IDS = "PatientEntity.deleteByIds";
+    public static final String DELETE_BY_ID_AND_VERSION = "PatientEntity.deleteByIdAndVersion";
+    public static final String DELETE_ADDRESSES_BY_IDS = "PatientEntity.deleteAddressesByIds";
+    public static final String INCREMENT_REVISION_BY_IDS = "PatientEntity.incrementRevisionByIds";
+    public static final String INCREMENT_REVISION_BY_ADDRESS_IDS = "PatientEntity.incrementRevisionByAddressIds";
+    public static final String INCREMENT_REVISION_BY_DOCTOR_IDS = "PatientEntity.incrementRevisionByDoctorIds";
+    public static final String INCREMENT_REVISION_BY_TREATMENT_IDS = "PatientEntity.incrementRevisionByTreatmentIds";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patient_seq")
+    @SequenceGenerator(name = "patient_seq", sequenceName = "patient_seq", initialValue = 1000, allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -19,6 +92,9 @@ public class PatientEntity {
     @Column(nullable = false)
     private String lastName;
 
+    @Column(nullable = false)
+    private String lastNameNormalized;
+
     @Column(nullable = false)
     private String telephoneNumber;
 
@@ -33,7 +109,7 @@ public class PatientEntity {
     @Column(nullable = false)
     private char gender;
 
-    @OneToOne(cascade = CascadeType.REMOVE)
+    @OneToOne(cascade = CascadeType.REMOVE, fetch = FetchType.LAZY)
     @JoinColumn(name = "address_id", referencedColumnName = "id")
     private AddressEntity address;
 
@@ -41,7 +117,12 @@ public class PatientEntity {
     @Column(name = "version", columnDefinition = "integer DEFAULT 0", nullable = false)
     private long version = 0L;
 
+    // Bumped by bulk updates when a visit, the address or a visit's doctor or treatment is written
+    @Column(name = "revision", columnDefinition = "bigint DEFAULT 0", nullable = false, insertable = false, updatable = false)
+    private long revision;
+
     @OneToMany(mappedBy = "patient", cascade = {CascadeType.ALL}, orphanRemoval = true, fetch = FetchType.LAZY)
+    @OptimisticLock(excluded = true)
     private List<VisitEntity> visits = new ArrayList<>();
 
 
@@ -70,6 +151,11 @@ public class PatientEntity {
 
     public void setLastName(String lastName) {
         this.lastName = lastName;
+        this.lastNameNormalized = NameNormalizer.normalize(lastName);
+    }
+
+    public String getLastNameNormalized() {
+        return lastNameNormalized;
     }
 
     public String getTelephoneNumber() {
@@ -120,6 +206,18 @@ public class PatientEntity {
         this.address = address;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public long getRevision() {
+        return revision;
+    }
+
     public List<VisitEntity> getVisits() {
         return visits;
     }
@@ -4,11 +4,58 @@ import javax.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "VISIT")
+@Table(name = "VISIT",
+        indexes = @Index(name = "idx_visit_patient_time", columnList = "patient_id, time, id"),
+        uniqueConstraints = @UniqueConstraint(name = VisitEntity.UNIQUE_DOCTOR_TIME, columnNames = {"doctor_id", "time"}))
+@NamedQueries({
+        @NamedQuery(name = VisitEntity.FIND_TOS_BY_PATIENT_ID,
+                query = VisitEntity.SELECT_TO + " WHERE v.patient.id = :patientId ORDER BY v.time, v.id"),
+        @NamedQuery(name = VisitEntity.FIND_FIRST_PAGE_BY_PATIENT_ID,
+                query = VisitEntity.SELECT_TO + " WHERE v.patient.id = :patientId ORDER BY v.time, v.id"),
+        @NamedQuery(name = VisitEntity.FIND_NEXT_PAGE_BY_PATIENT_ID,
+                query = VisitEntity.SELECT_TO + " WHERE v.patient.id = :patientId"
+                        + " AND (v.time > :lastTime OR (v.time = :lastTime AND v.id > :lastId)) ORDER BY v.time, v.id"),
+        @NamedQuery(name = VisitEntity.FIND_TOS_BY_DOCTOR_ID_AND_TIME_RANGE,
+                query = VisitEntity.SELECT_TO + " WHERE v.doctor.id = :doctorId AND v.time >= :from AND v.time < :to ORDER BY v.time, v.id"),
+        @NamedQuery(name = VisitEntity.FIND_TIMES_BY_DOCTOR_ID_AND_TIME_RANGE,
+                query = "SELECT v.time FROM VisitEntity v WHERE v.doctor.id = :doctorId AND v.time >= :from AND v.time < :to ORDER BY v.time"),
+        @NamedQuery(name = VisitEntity.FIND_ID_BY_DOCTOR_ID_AND_TIME,
+                query = "SELECT v.id FROM VisitEntity v WHERE v.doctor.id = :doctorId AND v.time = :time"),
+        @NamedQuery(name = VisitEntity.COUNT_BY_BUCKET_FOR_PATIENT_IDS,
+                query = "SELECT d.id, d.specialization, t.type, YEAR(v.time), MONTH(v.time), COUNT(v)"
+                        + " FROM VisitEntity v JOIN v.doctor d LEFT JOIN v.medicalTreatment t WHERE v.patient.id IN :patientIds"
+                        + " GROUP BY d.id, d.specialization, t.type, YEAR(v.time), MONTH(v.time)"),
+        @NamedQuery(name = VisitEntity.FIND_IDS_AND_TREATMENT_IDS_BY_PATIENT_IDS,
+                query = "SELECT v.id, t.id FROM VisitEntity v LEFT JOIN v.medicalTreatment t WHERE v.patient.id IN :patientIds"),
+        @NamedQuery(name = VisitEntity.FIND_TREATMENT_IDS_SHARED_WITH_OTHER_PATIENTS,
+                query = "SELECT DISTINCT t.id FROM VisitEntity v JOIN v.medicalTreatment t"
+                        + " WHERE t.id IN :treatmentIds AND (v.patient IS NULL OR v.patient.id NOT IN :patientIds)"),
+        @NamedQuery(name = VisitEntity.DELETE_BY_PATIENT_IDS, query = "DELETE FROM VisitEntity v WHERE v.patient.id IN :patientIds"),
+        @NamedQuery(name = VisitEntity.DELETE_TREATMENTS_BY_IDS, query = "DELETE FROM MedicalTreatmentEntity t WHERE t.id IN :ids")
+})
 public class VisitEntity {
 
+    public static final String FIND_TOS_BY_PATIENT_ID = "VisitEntity.findTOsByPatientId";
+    public static final String FIND_FIRST_PAGE_BY_PATIENT_ID = "VisitEntity.findFirstPageByPatientId";
+    public static final String FIND_NEXT_PAGE_BY_PATIENT_ID = "VisitEntity.findNextPageByPatientId";
+    public static final String FIND_TOS_BY_DOCTOR_ID_AND_TIME_RANGE = "VisitEntity.findTOsByDoctorIdAndTimeRange";
+    public static final String FIND_TIMES_BY_DOCTOR_ID_AND_TIME_RANGE = "VisitEntity.findTimesByDoctorIdAndTimeRange";
+    public static final String FIND_ID_BY_DOCTOR_ID_AND_TIME = "VisitEntity.findIdByDoctorIdAndTime";
+    public static final String COUNT_BY_BUCKET_FOR_PATIENT_IDS = "VisitEntity.countByBucketForPatientIds";
+    public static final String FIND_IDS_AND_TREATMENT_IDS_BY_PATIENT_IDS = "VisitEntity.findIdsAndTreatmentIdsByPatientIds";
+    public static final String FIND_TREATMENT_IDS_SHARED_WITH_OTHER_PATIENTS = "VisitEntity.findTreatmentIdsSharedWithOtherPatients";
+    public static final String DELETE_BY_PATIENT_IDS = "VisitEntity.deleteByPatientIds";
+    public static final String DELETE_TREATMENTS_BY_IDS = "VisitEntity.deleteTreatmentsByIds";
+
+    public static final String UNIQUE_DOCTOR_TIME = "uk_visit_doctor_time";
+
+    static final String SELECT_TO = "SELECT new com.jpacourse.dto.VisitTO(v.id, v.time, v.description,"
+            + " d.id, d.firstName, d.lastName, d.doctorNumber, d.specialization, t.id, t.description, t.type)"
+            + " FROM VisitEntity v JOIN v.doctor d LEFT JOIN v.medicalTreatment t";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "visit_seq")
+    @SequenceGenerator(name = "visit_seq", sequenceName = "visit_seq", initialValue = 1000, allocationSize = 50)
     private Long id;
 
     private String description;
@@ -16,15 +63,15 @@ public class VisitEntity {
     @Column(nullable = false)
     private LocalDateTime time;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", foreignKey = @ForeignKey(name = "fk_patient_id", value = ConstraintMode.CONSTRAINT))
     private PatientEntity patient;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id", nullable = false)
     private DoctorEntity doctor;
 
-    @ManyToOne(cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REMOVE})
+    @ManyToOne(cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REMOVE}, fetch = FetchType.LAZY)
     @JoinColumn(name = "medical_treatment_id")
     private MedicalTreatmentEntity medicalTreatment;
 
@@ -0,0 +1,77 @@
+package com.jpacourse.persistence.entity;
+
+import com.jpacourse.persistence.enums.StatisticsDimension;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "VISIT_STATISTICS", uniqueConstraints = @UniqueConstraint(name = "uk_visit_statistics_bucket",
+        columnNames = {"dimension", "dimensionKey", "monthStart"}))
+@NamedQueries({
+        @NamedQuery(name = VisitStatisticsEntity.FIND_TOS_BY_DIMENSION,
+                query = "SELECT new com.jpacourse.dto.VisitStatisticsTO(s.dimension, s.dimensionKey, s.monthStart, s.visitCount)"
+                        + " FROM VisitStatisticsEntity s WHERE s.dimension = :dimension AND s.monthStart >= :from AND s.monthStart <= :to"
+                        + " ORDER BY s.monthStart, s.dimensionKey")
+})
+public class VisitStatisticsEntity {
+
+    public static final String FIND_TOS_BY_DIMENSION = "VisitStatisticsEntity.findTOsByDimension";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StatisticsDimension dimension;
+
+    @Column(nullable = false)
+    private String dimensionKey;
+
+    @Column(nullable = false)
+    private LocalDate monthStart;
+
+    @Column(nullable = false)
+    private long visitCount;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public StatisticsDimension getDimension() {
+        return dimension;
+    }
+
+    public void setDimension(StatisticsDimension dimension) {
+        this.dimension = dimension;
+    }
+
+    public String getDimensionKey() {
+        return dimensionKey;
+    }
+
+    public void setDimensionKey(String dimensionKey) {
+        this.dimensionKey = dimensionKey;
+    }
+
+    public LocalDate getMonthStart() {
+        return monthStart;
+    }
+
+    public void setMonthStart(LocalDate monthStart) {
+        this.monthStart = monthStart;
+    }
+
+    public long getVisitCount() {
+        return visitCount;
+    }
+
+    public void setVisitCount(long visitCount) {
+        this.visitCount = visitCount;
+    }
+}
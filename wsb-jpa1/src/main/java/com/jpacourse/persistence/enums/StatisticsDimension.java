@@ -0,0 +1,12 @@
+package com.jpacourse.persistence.enums;
+
+/**
+ * Enum representing the dimensions by which visit statistics are counted.
+ * Each statistics bucket counts the visits of one doctor, specialization or treatment type in one month.
+ */
+public enum StatisticsDimension {
+
+    DOCTOR,
+    SPECIALIZATION,
+    TREATMENT_TYPE
+}
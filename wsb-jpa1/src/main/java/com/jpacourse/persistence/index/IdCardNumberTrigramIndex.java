@@ -0,0 +1,249 @@
+package com.jpacourse.persistence.index;
+
+import com.jpacourse.persistence.entity.PatientEntity;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory trigram index over {@link PatientEntity#getIdCardNumber()}.
+ * Every ID card number is split into its overlapping three-character substrings, and each trigram maps to
+ * the IDs of the patients containing it. A substring lookup intersects the posting lists of the trigrams of
+ * the searched fragment instead of scanning the PATIENT table with {@code LIKE '%x%'}.
+ * <p>
+ * The index is built from the database once the application is ready and is kept in sync by Hibernate
+ * post-commit listeners, so rolled back changes never reach it. Bulk deletes, which bypass Hibernate events,
+ * report removed patients through {@link #removeAfterCommit(Collection)}.
+ * <p>
+ * The index lives in the memory of one JVM and only sees the changes committed through it, so it assumes a single
+ * application instance owns the PATIENT table. Deployments with several instances, or with other writers of the
+ * table, must disable it with {@code id-card-index.enabled=false}; every lookup is then a {@code LIKE} scan.
+ * A lookup matching more than {@code id-card-index.max-candidates} patients is not answered either, since such a
+ * fragment barely narrows the scan and its IDs would only inflate the {@code IN} list of the follow-up query.
+ */
+@Component
+public class IdCardNumberTrigramIndex implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final boolean enabled;
+
+    private final int maxCandidates;
+
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    private final Map<Long, String> idCardNumbers = new ConcurrentHashMap<>();
+
+    private volatile boolean loaded;
+
+    /**
+     * Constructs an {@link IdCardNumberTrigramIndex} for the given {@link EntityManagerFactory}.
+     *
+     * @param entityManagerFactory the {@link EntityManagerFactory} whose patient changes are indexed
+     * @param enabled              whether the index is used at all, false when several instances share the database
+     * @param maxCandidates        the largest number of matching IDs a lookup answers with
+     */
+    public IdCardNumberTrigramIndex(EntityManagerFactory entityManagerFactory,
+                                    @Value("${id-card-index.enabled:true}") boolean enabled,
+                                    @Value("${id-card-index.max-candidates:500}") int maxCandidates) {
+        if (maxCandidates <= 0) throw new IllegalArgumentException("Maximum candidates must be positive: " + maxCandidates);
+
+        this.entityManagerFactory = entityManagerFactory;
+        this.enabled = enabled;
+        this.maxCandidates = maxCandidates;
+    }
+
+    /**
+     * Registers the index as a post-commit insert, update and delete listener of the Hibernate session factory.
+     */
+    @PostConstruct
+    void registerListeners() {
+        if (!enabled) return;
+
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    /**
+     * Builds the index from the ID card numbers stored in the database.
+     * Until this has completed, {@link #findIdsContaining(String)} declines to answer.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) return;
+
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            for (Object[] row : entityManager.createNamedQuery(PatientEntity.FIND_ID_CARD_NUMBERS, Object[].class).getResultList()) {
+                index((Long) row[0], (String) row[1]);
+            }
+        } finally {
+            entityManager.close();
+        }
+        loaded = true;
+    }
+
+    /**
+     * Finds the IDs of patients whose ID card number contains the given fragment.
+     * The index can only answer fragments of at least three characters, only once it has been loaded,
+     * and only if no more than {@code id-card-index.max-candidates} patients match.
+     *
+     * @param fragment the substring to search for
+     * @return the matching patient IDs, or an empty optional if the index cannot answer the lookup
+     */
+    public Optional<Set<Long>> findIdsContaining(String fragment) {
+        if (!loaded || fragment == null || fragment.length() < GRAM_LENGTH) return Optional.empty();
+
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String trigram : trigrams(fragment)) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids == null) return Optional.of(Collections.emptySet());
+            lists.add(ids);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> result = new HashSet<>();
+        for (Long id : lists.get(0)) {
+            if (containsInAll(lists, id)) {
+                String idCardNumber = idCardNumbers.get(id);
+                if (idCardNumber != null && idCardNumber.contains(fragment) && result.add(id)
+                        && result.size() > maxCandidates) {
+                    return Optional.empty();
+                }
+            }
+        }
+        return Optional.of(result);
+    }
+
+    /**
+     * Removes the given patients from the index once the current transaction commits,
+     * or immediately if no transaction is active.
+     *
+     * @param patientIds the IDs of the deleted patients
+     */
+    public void removeAfterCommit(Collection<Long> patientIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            patientIds.forEach(this::remove);
+            return;
+        }
+        List<Long> ids = new ArrayList<>(patientIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                ids.forEach(IdCardNumberTrigramIndex.this::remove);
+            }
+        });
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof PatientEntity) {
+            index((Long) event.getId(), ((PatientEntity) event.getEntity()).getIdCardNumber());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof PatientEntity) {
+            index((Long) event.getId(), ((PatientEntity) event.getEntity()).getIdCardNumber());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof PatientEntity) {
+            remove((Long) event.getId());
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Nothing was indexed before the commit, so there is nothing to undo.
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nothing was indexed before the commit, so there is nothing to undo.
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Nothing was removed before the commit, so there is nothing to undo.
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return PatientEntity.class.equals(persister.getMappedClass());
+    }
+
+    private synchronized void index(Long id, String idCardNumber) {
+        remove(id);
+        if (idCardNumber == null) return;
+
+        idCardNumbers.put(id, idCardNumber);
+        for (String trigram : trigrams(idCardNumber)) {
+            postings.computeIfAbsent(trigram, key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+    }
+
+    private synchronized void remove(Long id) {
+        String previous = idCardNumbers.remove(id);
+        if (previous == null) return;
+
+        for (String trigram : trigrams(previous)) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids != null) {
+                ids.remove(id);
+                if (ids.isEmpty()) postings.remove(trigram);
+            }
+        }
+    }
+
+    private static boolean containsInAll(List<Set<Long>> lists, Long id) {
+        for (int i = 1; i < lists.size(); i++) {
+            if (!lists.get(i).contains(id)) return false;
+        }
+        return true;
+    }
+
+    private static Set<String> trigrams(String value) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= value.length(); i++) {
+            trigrams.add(value.substring(i, i + GRAM_LENGTH));
+        }
+        return trigrams;
+    }
+}
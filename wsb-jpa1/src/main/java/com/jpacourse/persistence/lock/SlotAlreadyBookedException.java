@@ -0,0 +1,20 @@
+package com.jpacourse.persistence.lock;
+
+import java.time.LocalDateTime;
+
+/**
+ * Exception thrown when a visit is booked with a doctor at a time that is already taken,
+ * either by a committed visit or by a booking still in progress in another transaction.
+ */
+public class SlotAlreadyBookedException extends RuntimeException {
+
+    /**
+     * Constructs a new {@link SlotAlreadyBookedException} for the given doctor and time.
+     *
+     * @param doctorId the ID of the doctor
+     * @param time     the time of the requested visit
+     */
+    public SlotAlreadyBookedException(Long doctorId, LocalDateTime time) {
+        super("Doctor " + doctorId + " is already booked at " + time);
+    }
+}
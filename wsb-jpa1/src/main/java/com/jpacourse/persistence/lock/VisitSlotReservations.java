@@ -0,0 +1,49 @@
+package com.jpacourse.persistence.lock;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process table of the visit slots that are being booked right now, keyed by doctor and visit time.
+ * A booking reserves its slot before inserting the visit and keeps it until its transaction completes,
+ * so a concurrent booking of the same slot fails immediately instead of waiting for the database.
+ * Each doctor has a separate set of reserved times, so bookings for different doctors never contend.
+ * <p>
+ * The table only covers this JVM; the unique constraint on {@code VISIT(doctor_id, time)} remains the
+ * authority across application instances.
+ */
+@Component
+public class VisitSlotReservations {
+
+    private final Map<Long, Set<LocalDateTime>> reserved = new ConcurrentHashMap<>();
+
+    /**
+     * Reserves the slot of the given doctor and time until the current transaction completes,
+     * whether it commits or rolls back.
+     *
+     * @param doctorId the ID of the doctor
+     * @param time     the time of the visit being booked
+     * @throws SlotAlreadyBookedException if another transaction currently holds the same slot
+     * @throws IllegalStateException      if no transaction is active
+     */
+    public void reserveUntilCompletion(Long doctorId, LocalDateTime time) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Visit slots can only be reserved within a transaction");
+        }
+        Set<LocalDateTime> times = reserved.computeIfAbsent(doctorId, id -> ConcurrentHashMap.newKeySet());
+        if (!times.add(time)) throw new SlotAlreadyBookedException(doctorId, time);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                times.remove(time);
+            }
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package com.jpacourse.persistence.util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Utility class for normalising person names for indexed, case-insensitive search.
+ * A normalised name is case-folded and stripped of accents, so that e.g. "Łukasiewicz", "LUKASIEWICZ"
+ * and "łukasiewicz" share the same index key.
+ */
+public final class NameNormalizer {
+
+    /**
+     * Escape character used in the LIKE patterns built by {@link #toPrefixPattern(String)}.
+     */
+    public static final char LIKE_ESCAPE = '!';
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    /**
+     * Normalises a name by removing diacritics and converting it to lower case.
+     *
+     * @param name the name to be normalised
+     * @return the normalised name, or null if the input name is null
+     */
+    public static String normalize(final String name) {
+        if (name == null) return null;
+
+        String decomposed = Normalizer.normalize(name, Normalizer.Form.NFD)
+                .replace('\u0142', 'l')
+                .replace('\u0141', 'L');
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Builds a LIKE pattern matching all normalised names starting with the given prefix.
+     * LIKE wildcards in the prefix are escaped with {@link #LIKE_ESCAPE}, so the pattern can be served by an index range scan.
+     *
+     * @param prefix the prefix typed by the user
+     * @return the LIKE pattern for the normalised prefix
+     */
+    public static String toPrefixPattern(final String prefix) {
+        String normalized = normalize(prefix);
+        StringBuilder pattern = new StringBuilder(normalized.length() + 1);
+        for (char c : normalized.toCharArray()) {
+            if (c == LIKE_ESCAPE || c == '%' || c == '_') pattern.append(LIKE_ESCAPE);
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
@@ -1,46 +1,104 @@
 package com.jpacourse.rest;
 
 import com.jpacourse.dto.AddressTO;
+import com.jpacourse.dto.BulkLookupTO;
+import com.jpacourse.persistence.dao.Dao;
+import com.jpacourse.persistence.entity.AddressEntity;
+import com.jpacourse.rest.async.DatabaseExecutor;
+import com.jpacourse.rest.cache.ResponseCache;
 import com.jpacourse.rest.exception.EntityNotFoundException;
 import com.jpacourse.service.AddressService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * REST controller for managing address-related operations.
  * This controller provides endpoints for interacting with address data through HTTP requests.
  * It delegates business logic to the {@link AddressService} to retrieve address data.
+ * <p>
+ * Lookups run asynchronously on the {@link DatabaseExecutor}, which releases the servlet thread while the database
+ * is queried and answers with 503 when the database threads are saturated.
  */
 @RestController
 public class AddressController {
 
     private final AddressService addressService;
 
+    private final DatabaseExecutor databaseExecutor;
+
+    private final ResponseCache responseCache;
+
     /**
      * Constructs an instance of {@link AddressController}.
-     * This constructor is used to inject the {@link AddressService} dependency into the controller.
+     * This constructor is used to inject the {@link AddressService}, {@link DatabaseExecutor} and {@link ResponseCache}
+     * dependencies into the controller.
      *
-     * @param addressService the {@link AddressService} used to retrieve address data
+     * @param addressService   the {@link AddressService} used to retrieve address data
+     * @param databaseExecutor the {@link DatabaseExecutor} running the lookups
+     * @param responseCache    the {@link ResponseCache} holding serialized addresses
      */
-    public AddressController(AddressService addressService) {
+    public AddressController(AddressService addressService, DatabaseExecutor databaseExecutor, ResponseCache responseCache) {
         this.addressService = addressService;
+        this.databaseExecutor = databaseExecutor;
+        this.responseCache = responseCache;
     }
 
     /**
      * Retrieves an address by its unique identifier (ID).
      * This method handles GET requests to retrieve address data from the service layer. If the address is found,
      * it is returned; otherwise, an {@link EntityNotFoundException} is thrown.
+     * <p>
+     * The serialized address is taken from the {@link ResponseCache} as long as the address version is unchanged,
+     * so a repeated request costs a version lookup and a copy of the cached bytes.
      *
-     * @param id the unique identifier of the address to be retrieved
-     * @return the {@link AddressTO} object containing the address data
-     * @throws EntityNotFoundException if no address is found with the provided ID
+     * @param id     the unique identifier of the address to be retrieved
+     * @param accept the media types the client accepts, if given
+     * @return the response with the serialized {@link AddressTO} object containing the address data; it completes with
+     * an {@link EntityNotFoundException} if no address is found with the provided ID
+     * @throws HttpMediaTypeNotAcceptableException if the client accepts none of the supported media types
      */
     @GetMapping("/address/{id}")
-    AddressTO findById(@PathVariable final Long id) {
-        final AddressTO address = addressService.findById(id);
-        if (address != null) return address;
+    CompletableFuture<ResponseEntity<byte[]>> findById(@PathVariable final Long id,
+                                                       @RequestHeader(value = HttpHeaders.ACCEPT, required = false) final String accept)
+            throws HttpMediaTypeNotAcceptableException {
+        final MediaType mediaType = responseCache.negotiate(accept);
+        return databaseExecutor.supply(() -> {
+            final Long version = addressService.findVersionById(id);
+            if (version == null) throw new EntityNotFoundException(id);
+
+            final byte[] address = responseCache.get(AddressEntity.class, id, version, mediaType, () -> addressService.findById(id));
+            if (address == null) throw new EntityNotFoundException(id);
+            return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).contentType(mediaType).body(address);
+        });
+    }
+
+    /**
+     * Retrieves several addresses at once, e.g. {@code GET /addresses?ids=1,2,3}.
+     * IDs that do not exist are listed in the response instead of failing the request with 404.
+     * Responds with 400 (BAD REQUEST) if more than {@link Dao#MAX_IDS_PER_LOOKUP} IDs are given.
+     *
+     * @param ids the unique identifiers of the addresses to be retrieved
+     * @return the {@link BulkLookupTO} with the found addresses in the order of the given IDs and the IDs that were not found
+     */
+    @GetMapping("/addresses")
+    CompletableFuture<BulkLookupTO<AddressTO>> findByIds(@RequestParam final List<Long> ids) {
+        checkIdCount(ids);
+        return databaseExecutor.supply(() -> addressService.findByIds(ids));
+    }
 
-        throw new EntityNotFoundException(id);
+    private static void checkIdCount(final List<Long> ids) {
+        if (ids.size() > Dao.MAX_IDS_PER_LOOKUP) {
+            throw new IllegalArgumentException("At most " + Dao.MAX_IDS_PER_LOOKUP + " IDs can be looked up at once: " + ids.size());
+        }
     }
 }
@@ -0,0 +1,40 @@
+package com.jpacourse.rest;
+
+import com.jpacourse.dto.CacheRegionStatisticsTO;
+import com.jpacourse.service.CacheStatisticsService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller exposing second-level cache statistics.
+ * It delegates to the {@link CacheStatisticsService} to read the counters of every cache region.
+ * It is only registered when Hibernate statistics are enabled with {@code hibernate.generate_statistics=true}.
+ */
+@RestController
+@ConditionalOnProperty(name = "spring.jpa.properties.hibernate.generate_statistics", havingValue = "true")
+public class CacheStatisticsController {
+
+    private final CacheStatisticsService cacheStatisticsService;
+
+    /**
+     * Constructs an instance of {@link CacheStatisticsController}.
+     *
+     * @param cacheStatisticsService the {@link CacheStatisticsService} used to read cache statistics
+     */
+    public CacheStatisticsController(CacheStatisticsService cacheStatisticsService) {
+        this.cacheStatisticsService = cacheStatisticsService;
+    }
+
+    /**
+     * Retrieves hit, miss, put and eviction counters of every second-level cache region.
+     *
+     * @return a list of {@link CacheRegionStatisticsTO} objects, one per cache region
+     */
+    @GetMapping("/cache/statistics")
+    List<CacheRegionStatisticsTO> findAll() {
+        return cacheStatisticsService.findAll();
+    }
+}
@@ -0,0 +1,35 @@
+package com.jpacourse.rest;
+
+import com.jpacourse.dto.DatabaseExecutorStatisticsTO;
+import com.jpacourse.rest.async.DatabaseExecutor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller exposing the statistics of the {@link DatabaseExecutor}.
+ * It shows how close the asynchronous endpoints are to saturation and how long requests wait for a database thread.
+ */
+@RestController
+public class DatabaseExecutorController {
+
+    private final DatabaseExecutor databaseExecutor;
+
+    /**
+     * Constructs an instance of {@link DatabaseExecutorController}.
+     *
+     * @param databaseExecutor the {@link DatabaseExecutor} whose statistics are exposed
+     */
+    public DatabaseExecutorController(DatabaseExecutor databaseExecutor) {
+        this.databaseExecutor = databaseExecutor;
+    }
+
+    /**
+     * Retrieves pool size, active threads, queue depth, rejected tasks and queue wait times of the database executor.
+     *
+     * @return the {@link DatabaseExecutorStatisticsTO} of the database executor
+     */
+    @GetMapping("/database-executor/statistics")
+    DatabaseExecutorStatisticsTO getStatistics() {
+        return databaseExecutor.getStatistics();
+    }
+}
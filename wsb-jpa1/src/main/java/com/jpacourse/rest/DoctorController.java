@@ -0,0 +1,98 @@
+package com.jpacourse.rest;
+
+import com.jpacourse.dto.VisitTO;
+import com.jpacourse.persistence.dao.DoctorDao;
+import com.jpacourse.service.DoctorService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * REST controller for reading doctors' schedules.
+ * It serves the booking screen with a doctor's visits in a time range, the free slots in a range
+ * and the next available slot, all computed in the database instead of on the client.
+ */
+@RestController
+public class DoctorController {
+
+    private static final long MAX_SLOT_MINUTES = Duration.ofDays(1).toMinutes();
+
+    private final DoctorService doctorService;
+
+    /**
+     * Constructs an instance of {@link DoctorController}.
+     *
+     * @param doctorService the {@link DoctorService} used to read the schedules
+     */
+    public DoctorController(DoctorService doctorService) {
+        this.doctorService = doctorService;
+    }
+
+    /**
+     * Lists the visits booked with a doctor that start in the given time range, ordered by time.
+     * Responds with 400 (BAD REQUEST) if the range is reversed or longer than {@link DoctorDao#MAX_SEARCH_RANGE}.
+     *
+     * @param id   the unique identifier of the doctor
+     * @param from the start of the range, inclusive
+     * @param to   the end of the range, exclusive
+     * @return the visits in the range
+     */
+    @GetMapping("/doctor/{id}/visits")
+    List<VisitTO> findVisits(@PathVariable final Long id,
+                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) final LocalDateTime from,
+                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) final LocalDateTime to) {
+        return doctorService.findVisitsByDoctorId(id, from, to);
+    }
+
+    /**
+     * Lists the start times of a doctor's free slots in the given time range.
+     * Responds with 400 (BAD REQUEST) if the slot length is not between one minute and one day,
+     * or if the range is reversed or holds too many slots.
+     *
+     * @param id          the unique identifier of the doctor
+     * @param from        the start of the first slot
+     * @param to          the end of the range
+     * @param slotMinutes the length of a slot in minutes
+     * @return the start times of the free slots
+     */
+    @GetMapping("/doctor/{id}/free-slots")
+    List<LocalDateTime> findFreeSlots(@PathVariable final Long id,
+                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) final LocalDateTime from,
+                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) final LocalDateTime to,
+                                      @RequestParam(defaultValue = "30") final long slotMinutes) {
+        return doctorService.findFreeSlots(id, from, to, toSlotLength(slotMinutes));
+    }
+
+    /**
+     * Returns the start time of a doctor's first free slot at or after the given time.
+     * Responds with 404 (NOT FOUND) if there is no free slot before {@code until}, and with 400 (BAD REQUEST)
+     * if the slot length is not between one minute and one day, or if the range is reversed or too long.
+     *
+     * @param id          the unique identifier of the doctor
+     * @param from        the start of the first slot considered
+     * @param until       the end of the search
+     * @param slotMinutes the length of a slot in minutes
+     * @return the start time of the first free slot
+     */
+    @GetMapping("/doctor/{id}/next-slot")
+    ResponseEntity<LocalDateTime> findNextAvailableSlot(@PathVariable final Long id,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) final LocalDateTime from,
+                                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) final LocalDateTime until,
+                                                        @RequestParam(defaultValue = "30") final long slotMinutes) {
+        return ResponseEntity.of(doctorService.findNextAvailableSlot(id, from, until, toSlotLength(slotMinutes)));
+    }
+
+    private static Duration toSlotLength(long slotMinutes) {
+        if (slotMinutes <= 0 || slotMinutes > MAX_SLOT_MINUTES) {
+            throw new IllegalArgumentException("Slot length must be between 1 and " + MAX_SLOT_MINUTES + " minutes: " + slotMinutes);
+        }
+        return Duration.ofMinutes(slotMinutes);
+    }
+}
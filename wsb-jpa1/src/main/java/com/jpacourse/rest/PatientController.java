@@ -1,46 +1,195 @@
 package com.jpacourse.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.jpacourse.dto.BulkLookupTO;
 import com.jpacourse.dto.PatientTO;
+import com.jpacourse.dto.PatientVersionTO;
+import com.jpacourse.persistence.dao.Dao;
+import com.jpacourse.persistence.entity.PatientEntity;
+import com.jpacourse.rest.async.DatabaseExecutor;
+import com.jpacourse.rest.cache.ResponseCache;
 import com.jpacourse.rest.exception.EntityNotFoundException;
 import com.jpacourse.service.PatientService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * REST controller for managing patient-related operations.
  * This controller provides endpoints for interacting with patient data through HTTP requests.
  * It delegates the business logic to the {@link PatientService} to retrieve patient data.
+ * <p>
+ * Lookups run asynchronously on the {@link DatabaseExecutor}, which releases the servlet thread while the database
+ * is queried and answers with 503 when the database threads are saturated.
  */
 @RestController
 public class PatientController {
 
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
     private final PatientService patientService;
 
+    private final DatabaseExecutor databaseExecutor;
+
+    private final ResponseCache responseCache;
+
+    private final ObjectWriter patientWriter;
+
     /**
      * Constructs an instance of {@link PatientController}.
-     * This constructor is used to inject the {@link PatientService} dependency into the controller.
+     * This constructor is used to inject the {@link PatientService}, {@link DatabaseExecutor}, {@link ResponseCache}
+     * and {@link ObjectMapper} dependencies into the controller.
      *
-     * @param patientService the {@link PatientService} used to retrieve patient data
+     * @param patientService   the {@link PatientService} used to retrieve patient data
+     * @param databaseExecutor the {@link DatabaseExecutor} running the lookups
+     * @param responseCache    the {@link ResponseCache} holding serialized patients
+     * @param objectMapper     the {@link ObjectMapper} used to write the patient export
      */
-    public PatientController(PatientService patientService) {
+    public PatientController(PatientService patientService, DatabaseExecutor databaseExecutor, ResponseCache responseCache,
+                             ObjectMapper objectMapper) {
         this.patientService = patientService;
+        this.databaseExecutor = databaseExecutor;
+        this.responseCache = responseCache;
+        this.patientWriter = objectMapper.writerFor(PatientTO.class);
     }
 
     /**
      * Retrieves a patient by their unique identifier (ID).
      * This method handles GET requests to retrieve patient data from the service layer. If the patient is found,
      * it is returned; otherwise, an {@link EntityNotFoundException} is thrown.
+     * <p>
+     * The response carries a strong ETag built from the patient's ID, version and revision. The revision is
+     * incremented by writes to the visits, address, doctors and treatments shown with the patient, so the ETag changes
+     * whenever the response does. The ETag is computed from a version-only lookup, so a request whose
+     * {@code If-None-Match} header still matches is answered with
+     * {@code 304 Not Modified} without reading or serializing the patient. Other requests for an unchanged patient
+     * are answered with the serialized patient held in the {@link ResponseCache} under the same ETag.
      *
-     * @param id the unique identifier of the patient to be retrieved
-     * @return the {@link PatientTO} object containing the patient's data
-     * @throws EntityNotFoundException if no patient is found with the provided ID
+     * @param id          the unique identifier of the patient to be retrieved
+     * @param ifNoneMatch the ETags of the client's cached copies, if any
+     * @param accept      the media types the client accepts, if given
+     * @return the response with the serialized {@link PatientTO} object containing the patient's data, or an empty
+     * 304 response if the client's copy is up to date; it completes with an {@link EntityNotFoundException} if no patient
+     * is found with the provided ID
+     * @throws HttpMediaTypeNotAcceptableException if the client accepts none of the supported media types
      */
     @GetMapping("/patient/{id}")
-    PatientTO findById(@PathVariable final Long id) {
-        final PatientTO patient = patientService.findById(id);
-        if (patient != null) return patient;
+    CompletableFuture<ResponseEntity<byte[]>> findById(@PathVariable final Long id,
+                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                       final String ifNoneMatch,
+                                                       @RequestHeader(value = HttpHeaders.ACCEPT, required = false)
+                                                       final String accept) throws HttpMediaTypeNotAcceptableException {
+        final MediaType mediaType = responseCache.negotiate(accept);
+        return databaseExecutor.supply(() -> {
+            final PatientVersionTO version = patientService.findVersionById(id);
+            if (version == null) throw new EntityNotFoundException(id);
+
+            final String eTag = eTag(version, mediaType);
+            if (matchesAny(ifNoneMatch, eTag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+
+            final byte[] patient = responseCache.get(PatientEntity.class, id, eTag, mediaType, () -> patientService.findById(id));
+            if (patient == null) throw new EntityNotFoundException(id);
+            return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).contentType(mediaType).body(patient);
+        });
+    }
+
+    /**
+     * Retrieves several patients at once, e.g. {@code GET /patients?ids=1,2,3}.
+     * IDs that do not exist are listed in the response instead of failing the request with 404.
+     * Responds with 400 (BAD REQUEST) if more than {@link Dao#MAX_IDS_PER_LOOKUP} IDs are given.
+     *
+     * @param ids the unique identifiers of the patients to be retrieved
+     * @return the {@link BulkLookupTO} with the found patients in the order of the given IDs and the IDs that were not found
+     */
+    @GetMapping("/patients")
+    CompletableFuture<BulkLookupTO<PatientTO>> findByIds(@RequestParam final List<Long> ids) {
+        checkIdCount(ids);
+        return databaseExecutor.supply(() -> patientService.findByIds(ids));
+    }
+
+    /**
+     * Exports all patients, with their addresses and visits, as newline-delimited JSON (one patient per line).
+     * The response headers are sent before the first patient is read, and each patient is written to the response
+     * as soon as it has been mapped, so neither the patient base nor the response body is ever held in memory.
+     * The export runs on the request thread rather than on the {@link DatabaseExecutor}, whose few threads
+     * it would otherwise hold for the whole run.
+     *
+     * @param response the HTTP response the patients are written to
+     * @throws IOException if writing to the response fails
+     */
+    @GetMapping(value = "/patients/export", produces = APPLICATION_NDJSON)
+    void exportAll(final HttpServletResponse response) throws IOException {
+        response.setContentType(APPLICATION_NDJSON);
+        response.flushBuffer();
+
+        final OutputStream out = response.getOutputStream();
+        try {
+            patientService.exportAll(patient -> {
+                try {
+                    out.write(patientWriter.writeValueAsBytes(patient));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
+    private static void checkIdCount(final List<Long> ids) {
+        if (ids.size() > Dao.MAX_IDS_PER_LOOKUP) {
+            throw new IllegalArgumentException("At most " + Dao.MAX_IDS_PER_LOOKUP + " IDs can be looked up at once: " + ids.size());
+        }
+    }
+
+    /**
+     * Builds the ETag of a patient representation. The revision is part of the tag because writes to the embedded
+     * records do not increment the patient's version, and the media type is because each encoding is
+     * a representation of its own.
+     *
+     * @param version   the version state of the patient
+     * @param mediaType the media type of the representation
+     * @return the quoted ETag value
+     */
+    private static String eTag(final PatientVersionTO version, final MediaType mediaType) {
+        return "\"" + version.getId() + "-" + version.getVersion() + "-" + version.getRevision() + "-" + mediaType.getSubtype() + "\"";
+    }
+
+    /**
+     * Tells whether an {@code If-None-Match} header matches the given ETag, using the weak comparison
+     * the header is defined with.
+     *
+     * @param ifNoneMatch the value of the {@code If-None-Match} header, or null if there is none
+     * @param eTag        the quoted current ETag
+     * @return {@code true} if the header lists the ETag or is {@code *}
+     */
+    private static boolean matchesAny(final String ifNoneMatch, final String eTag) {
+        if (ifNoneMatch == null) return false;
 
-        throw new EntityNotFoundException(id);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(eTag)) return true;
+        }
+        return false;
     }
 }
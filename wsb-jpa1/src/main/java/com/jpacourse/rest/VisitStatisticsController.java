@@ -0,0 +1,45 @@
+package com.jpacourse.rest;
+
+import com.jpacourse.dto.VisitStatisticsTO;
+import com.jpacourse.persistence.enums.StatisticsDimension;
+import com.jpacourse.service.VisitStatisticsService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * REST controller exposing the monthly visit statistics for the management dashboards.
+ * It delegates to the {@link VisitStatisticsService}, which reads precomputed counters instead of grouping the visits.
+ */
+@RestController
+public class VisitStatisticsController {
+
+    private final VisitStatisticsService visitStatisticsService;
+
+    /**
+     * Constructs an instance of {@link VisitStatisticsController}.
+     *
+     * @param visitStatisticsService the {@link VisitStatisticsService} used to read the statistics
+     */
+    public VisitStatisticsController(VisitStatisticsService visitStatisticsService) {
+        this.visitStatisticsService = visitStatisticsService;
+    }
+
+    /**
+     * Retrieves the monthly visit counts of one dimension, e.g. {@code /statistics/visits?dimension=DOCTOR&from=2024-01&to=2024-12}.
+     *
+     * @param dimension the dimension to read
+     * @param from      the first month, inclusive, as {@code yyyy-MM}
+     * @param to        the last month, inclusive, as {@code yyyy-MM}
+     * @return a list of {@link VisitStatisticsTO} objects ordered by month and key
+     */
+    @GetMapping("/statistics/visits")
+    List<VisitStatisticsTO> findByDimension(@RequestParam final StatisticsDimension dimension,
+                                            @RequestParam final YearMonth from,
+                                            @RequestParam final YearMonth to) {
+        return visitStatisticsService.findByDimension(dimension, from, to);
+    }
+}
@@ -0,0 +1,129 @@
+package com.jpacourse.rest.async;
+
+import com.jpacourse.config.VirtualThreads;
+import com.jpacourse.dto.DatabaseExecutorStatisticsTO;
+import com.jpacourse.rest.exception.ServerBusyException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Executor running the blocking database work of asynchronous controllers off the servlet request threads.
+ * <p>
+ * It has as many threads as the JDBC connection pool has connections, since further threads could only wait
+ * for a connection, and a bounded queue in front of them. When the queue is full, new work is rejected at once
+ * with a {@link ServerBusyException} instead of piling up, so a storm of slow queries cannot tie up the servlet
+ * threads serving cheap endpoints. The time each task waits in the queue is recorded and reported
+ * by {@link #getStatistics()}.
+ * <p>
+ * In the virtual thread mode the threads are virtual, so a task blocked on the database does not hold
+ * a platform thread; the number of threads stays bounded by the connection pool all the same.
+ */
+@Component
+public class DatabaseExecutor implements DisposableBean {
+
+    private static final String THREAD_NAME_PREFIX = "db-executor-";
+
+    private final ThreadPoolExecutor executor;
+
+    private final int queueCapacity;
+
+    private final LongAdder rejectedTaskCount = new LongAdder();
+
+    private final LongAdder queueWaitCount = new LongAdder();
+
+    private final LongAdder queueWaitNanos = new LongAdder();
+
+    private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+
+    /**
+     * Constructs an instance of {@link DatabaseExecutor}.
+     *
+     * @param poolSize      the number of threads, by default the maximum size of the JDBC connection pool
+     * @param queueCapacity the maximum number of tasks waiting for a thread before new tasks are rejected
+     * @param virtual       whether the threads should be virtual threads
+     */
+    public DatabaseExecutor(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                            @Value("${db-executor.queue-capacity:100}") int queueCapacity,
+                            @Value("${virtual-threads.enabled:false}") boolean virtual) {
+        this.queueCapacity = queueCapacity;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                virtual ? VirtualThreads.threadFactory(THREAD_NAME_PREFIX) : platformThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Runs the given supplier on a database thread.
+     *
+     * @param supplier the blocking work, typically a service call
+     * @param <T>      the type of the result
+     * @return a future completed with the supplier's result, or exceptionally with the exception it threw
+     * @throws ServerBusyException if all threads are busy and the queue is full
+     */
+    public <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+        final long enqueuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                recordQueueWait(System.nanoTime() - enqueuedAt);
+                return supplier.get();
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedTaskCount.increment();
+            throw new ServerBusyException(queueCapacity);
+        }
+    }
+
+    /**
+     * Reads the current size of the executor and the queue wait times recorded so far.
+     *
+     * @return the {@link DatabaseExecutorStatisticsTO} of this executor
+     */
+    public DatabaseExecutorStatisticsTO getStatistics() {
+        final DatabaseExecutorStatisticsTO statistics = new DatabaseExecutorStatisticsTO();
+        statistics.setPoolSize(executor.getMaximumPoolSize());
+        statistics.setActiveCount(executor.getActiveCount());
+        statistics.setQueueDepth(executor.getQueue().size());
+        statistics.setQueueCapacity(queueCapacity);
+        statistics.setCompletedTaskCount(executor.getCompletedTaskCount());
+        statistics.setRejectedTaskCount(rejectedTaskCount.sum());
+
+        final long waits = queueWaitCount.sum();
+        statistics.setAverageQueueWaitMillis(waits == 0 ? 0.0 : queueWaitNanos.sum() / 1_000_000.0 / waits);
+        statistics.setMaxQueueWaitMillis(maxQueueWaitNanos.get() / 1_000_000.0);
+        return statistics;
+    }
+
+    /**
+     * Stops accepting tasks and lets the queued ones finish when the application context closes.
+     */
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private void recordQueueWait(long nanos) {
+        queueWaitCount.increment();
+        queueWaitNanos.add(nanos);
+        maxQueueWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    private static ThreadFactory platformThreadFactory() {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
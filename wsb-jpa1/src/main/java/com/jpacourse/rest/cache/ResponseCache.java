@@ -0,0 +1,175 @@
+package com.jpacourse.rest.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jpacourse.persistence.dao.EntityChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Cache of serialized responses, so that a repeated request for an unchanged record is answered
+ * by copying ready-made bytes instead of mapping the entity and running Jackson again.
+ * <p>
+ * Each record has one entry per media type, holding the bytes together with the version they were serialized for.
+ * The caller passes the current version, which must change whenever the response body changes, e.g. the patient ETag
+ * that includes the revision bumped by writes to embedded records. An entry is only served to a request for the same
+ * version, so bytes put by a reader that raced with a write are never served once the new version has committed.
+ * The cache is bounded by the total size of the cached bytes and evicts with Caffeine's W-TinyLFU policy.
+ * Writes through the DAOs additionally free the entries of the written entities once their transaction commits.
+ */
+@Component
+public class ResponseCache {
+
+    private final Map<MediaType, ObjectMapper> mappers = new LinkedHashMap<>();
+
+    private final Cache<Key, Entry> cache;
+
+    /**
+     * Constructs an instance of {@link ResponseCache}.
+     *
+     * @param objectMapper   the {@link ObjectMapper} writing JSON
+     * @param cborConverter  the converter whose object mapper writes CBOR
+     * @param smileConverter the converter whose object mapper writes Smile
+     * @param maximumBytes   the maximum total size of the cached responses
+     */
+    public ResponseCache(ObjectMapper objectMapper,
+                         MappingJackson2CborHttpMessageConverter cborConverter,
+                         MappingJackson2SmileHttpMessageConverter smileConverter,
+                         @Value("${response-cache.maximum-bytes:33554432}") long maximumBytes) {
+        mappers.put(MediaType.APPLICATION_JSON, objectMapper);
+        mappers.put(MediaType.APPLICATION_CBOR, cborConverter.getObjectMapper());
+        mappers.put(new MediaType("application", "x-jackson-smile"), smileConverter.getObjectMapper());
+        cache = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((Key key, Entry entry) -> entry.body.length)
+                .build();
+    }
+
+    /**
+     * Chooses the media type of a response from the {@code Accept} header of the request.
+     *
+     * @param accept the value of the {@code Accept} header, or null if there is none
+     * @return the supported media type the client prefers, JSON if it accepts anything
+     * @throws HttpMediaTypeNotAcceptableException if the client accepts none of the supported media types
+     */
+    public MediaType negotiate(String accept) throws HttpMediaTypeNotAcceptableException {
+        if (accept == null || accept.isEmpty()) return MediaType.APPLICATION_JSON;
+
+        final List<MediaType> requested = MediaType.parseMediaTypes(accept);
+        MediaType.sortBySpecificityAndQuality(requested);
+        for (MediaType candidate : requested) {
+            for (MediaType supported : mappers.keySet()) {
+                if (candidate.isCompatibleWith(supported)) return supported;
+            }
+        }
+        throw new HttpMediaTypeNotAcceptableException(new ArrayList<>(mappers.keySet()));
+    }
+
+    /**
+     * Returns the serialized response for the given version of a record, serializing it on a cache miss.
+     *
+     * @param entityType the entity class the response represents
+     * @param id         the ID of the entity
+     * @param version    a value that changes whenever the response body changes, e.g. the entity version
+     * @param mediaType  the media type, one of those returned by {@link #negotiate(String)}
+     * @param body       supplies the object to serialize on a cache miss, or null if the record does not exist
+     * @return the serialized response, or null if the record does not exist
+     */
+    public byte[] get(Class<?> entityType, Object id, Object version, MediaType mediaType, Supplier<?> body) {
+        final Key key = new Key(entityType, id, mediaType);
+        final Entry cached = cache.getIfPresent(key);
+        if (cached != null && cached.version.equals(version)) return cached.body;
+
+        final byte[] serialized = serialize(body.get(), mediaType);
+        if (serialized != null) cache.put(key, new Entry(version, serialized));
+        return serialized;
+    }
+
+    /**
+     * Evicts the entries of the written entities once the transaction that wrote them has committed.
+     * Only the entries of the written IDs are looked up; the cache is scanned only when a bulk statement
+     * may have written any entity of the type.
+     *
+     * @param event the event published by a DAO
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void evict(EntityChangedEvent event) {
+        if (event.getIds() == null) {
+            cache.asMap().keySet().removeIf(key -> event.covers(key.entityType, key.id));
+            return;
+        }
+
+        final List<Key> keys = new ArrayList<>();
+        for (Object id : event.getIds()) {
+            for (MediaType mediaType : mappers.keySet()) {
+                keys.add(new Key(event.getEntityType(), id, mediaType));
+            }
+        }
+        cache.invalidateAll(keys);
+    }
+
+    private byte[] serialize(Object body, MediaType mediaType) {
+        if (body == null) return null;
+
+        try {
+            return mappers.get(mediaType).writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + body.getClass().getSimpleName() + " as " + mediaType, e);
+        }
+    }
+
+    private static final class Key {
+
+        private final Class<?> entityType;
+
+        private final Object id;
+
+        private final MediaType mediaType;
+
+        private Key(Class<?> entityType, Object id, MediaType mediaType) {
+            this.entityType = entityType;
+            this.id = id;
+            this.mediaType = mediaType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return entityType.equals(key.entityType) && id.equals(key.id) && mediaType.equals(key.mediaType);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entityType, id, mediaType);
+        }
+    }
+
+    private static final class Entry {
+
+        private final Object version;
+
+        private final byte[] body;
+
+        private Entry(Object version, byte[] body) {
+            this.version = version;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.jpacourse.rest.exception;
+
+/**
+ * Custom exception thrown when a request cannot be accepted because all database threads are busy
+ * and their queue is full. It is answered with 503 (SERVICE UNAVAILABLE) so that clients back off and retry.
+ */
+public class ServerBusyException extends RuntimeException {
+
+    /**
+     * Constructs a new {@link ServerBusyException} with a message stating the exhausted queue capacity.
+     *
+     * @param queueCapacity the capacity of the queue that is full
+     */
+    public ServerBusyException(int queueCapacity) {
+        super("Server is busy: all " + queueCapacity + " queued database requests are waiting, try again later");
+    }
+}
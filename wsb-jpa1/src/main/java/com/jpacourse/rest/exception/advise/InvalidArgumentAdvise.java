@@ -0,0 +1,34 @@
+package com.jpacourse.rest.exception.advise;
+
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Global exception handler for arguments rejected by a controller or a DAO.
+ * <p>
+ * An {@link IllegalArgumentException}, also when a {@code @Repository} has translated it into an
+ * {@link InvalidDataAccessApiUsageException}, is answered with 400 (BAD REQUEST) instead of 500,
+ * returning the message of the original exception as the response body.
+ */
+@ControllerAdvice
+public class InvalidArgumentAdvise {
+
+    /**
+     * Handles {@link IllegalArgumentException} and {@link InvalidDataAccessApiUsageException} exceptions.
+     *
+     * @param ex the exception that was thrown
+     * @return a string containing the message of the original exception to be returned in the response body
+     */
+    @ResponseBody
+    @ExceptionHandler({IllegalArgumentException.class, InvalidDataAccessApiUsageException.class})
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    String invalidArgumentHandler(RuntimeException ex) {
+        Throwable cause = NestedExceptionUtils.getMostSpecificCause(ex);
+        return cause.getMessage();
+    }
+}
@@ -0,0 +1,35 @@
+package com.jpacourse.rest.exception.advise;
+
+import com.jpacourse.rest.exception.ServerBusyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+/**
+ * Global exception handler for handling {@link ServerBusyException}.
+ * <p>
+ * When a {@link ServerBusyException} is thrown, this handler answers at once with 503 (SERVICE UNAVAILABLE)
+ * and a {@code Retry-After} header, returning the exception message as the response body.
+ */
+@ControllerAdvice
+public class ServerBusyAdvise {
+
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    /**
+     * Handles {@link ServerBusyException} exceptions.
+     *
+     * @param ex the {@link ServerBusyException} that was thrown
+     * @return a response with status 503, a {@code Retry-After} header and the exception message as the body
+     */
+    @ResponseBody
+    @ExceptionHandler(ServerBusyException.class)
+    ResponseEntity<String> serverBusyHandler(ServerBusyException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(ex.getMessage());
+    }
+}
@@ -1,6 +1,9 @@
 package com.jpacourse.service;
 
 import com.jpacourse.dto.AddressTO;
+import com.jpacourse.dto.BulkLookupTO;
+
+import java.util.Collection;
 
 /**
  * Service interface for managing Address operations.
@@ -16,4 +19,20 @@ public interface AddressService {
      * @return the AddressTO corresponding to the given ID, or null if no address is found
      */
     AddressTO findById(final Long id);
+
+    /**
+     * Finds the version of an address, which changes whenever the data returned by {@link #findById(Long)} changes.
+     *
+     * @param id the ID of the address
+     * @return the version of the address, or null if no address is found
+     */
+    Long findVersionById(final Long id);
+
+    /**
+     * Finds the addresses with the given IDs and returns the corresponding AddressTO objects.
+     *
+     * @param ids the IDs of the addresses to be found; duplicates are looked up once
+     * @return the found addresses in the order of the given IDs, together with the IDs for which no address exists
+     */
+    BulkLookupTO<AddressTO> findByIds(final Collection<Long> ids);
 }
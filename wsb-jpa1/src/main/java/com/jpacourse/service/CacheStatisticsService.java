@@ -0,0 +1,19 @@
+package com.jpacourse.service;
+
+import com.jpacourse.dto.CacheRegionStatisticsTO;
+
+import java.util.List;
+
+/**
+ * Service interface for reading second-level cache statistics.
+ * It reports how effectively the cached reference data (doctors, treatments, addresses) is being reused.
+ */
+public interface CacheStatisticsService {
+
+    /**
+     * Retrieves the statistics of every second-level cache region.
+     *
+     * @return a list of statistics, one entry per cache region
+     */
+    List<CacheRegionStatisticsTO> findAll();
+}
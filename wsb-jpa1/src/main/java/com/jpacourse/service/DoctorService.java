@@ -0,0 +1,47 @@
+package com.jpacourse.service;
+
+import com.jpacourse.dto.VisitTO;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service interface for reading doctors' schedules.
+ * It offers functionality to list a doctor's booked visits and to find free booking slots.
+ */
+public interface DoctorService {
+
+    /**
+     * Finds the visits booked with a doctor that start in the given time range.
+     *
+     * @param doctorId the unique identifier of the doctor
+     * @param from     the start of the range, inclusive
+     * @param to       the end of the range, exclusive
+     * @return the visits ordered by time, or an empty list if there are none
+     */
+    List<VisitTO> findVisitsByDoctorId(Long doctorId, LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Finds the free slots of a doctor in the given time range.
+     *
+     * @param doctorId   the unique identifier of the doctor
+     * @param from       the start of the first slot
+     * @param to         the end of the range
+     * @param slotLength the length of a slot
+     * @return the start times of the free slots in ascending order
+     */
+    List<LocalDateTime> findFreeSlots(Long doctorId, LocalDateTime from, LocalDateTime to, Duration slotLength);
+
+    /**
+     * Finds the first free slot of a doctor at or after the given time.
+     *
+     * @param doctorId   the unique identifier of the doctor
+     * @param from       the start of the first slot considered
+     * @param until      the end of the search
+     * @param slotLength the length of a slot
+     * @return the start time of the first free slot, or an empty {@link Optional} if there is none
+     */
+    Optional<LocalDateTime> findNextAvailableSlot(Long doctorId, LocalDateTime from, LocalDateTime until, Duration slotLength);
+}
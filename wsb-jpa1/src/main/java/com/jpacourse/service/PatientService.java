@@ -1,9 +1,15 @@
 package com.jpacourse.service;
 
+import com.jpacourse.dto.BulkLookupTO;
 import com.jpacourse.dto.PatientTO;
-import com.jpacourse.persistence.entity.VisitEntity;
+import com.jpacourse.dto.PatientVersionTO;
+import com.jpacourse.dto.VisitTO;
+import com.jpacourse.persistence.dao.KeysetPage;
+import com.jpacourse.persistence.dao.PageCursor;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * The PatientService interface provides methods for interacting with the patient data.
@@ -19,7 +25,42 @@ public interface PatientService {
      */
     PatientTO findById(final Long id);
 
-    List<VisitEntity> findVisitsByPatientId(Long patientId);
+    /**
+     * Finds the version state of a patient, which changes whenever the data returned by {@link #findById(Long)} changes
+     * through the patient or their visits.
+     *
+     * @param id the unique identifier of the patient
+     * @return the PatientVersionTO of the patient, or null if no patient is found with the given ID
+     */
+    PatientVersionTO findVersionById(final Long id);
+
+    /**
+     * Finds the patients with the given IDs and returns their data transfer objects.
+     *
+     * @param ids the IDs of the patients to be found; duplicates are looked up once
+     * @return the found patients in the order of the given IDs, together with the IDs for which no patient exists
+     */
+    BulkLookupTO<PatientTO> findByIds(final Collection<Long> ids);
+
+    /**
+     * Passes every patient, with their address and visits, to the given consumer one at a time.
+     * Patients are read from a database cursor, so the whole patient base is never held in memory at once.
+     *
+     * @param consumer the consumer receiving the patients
+     */
+    void exportAll(Consumer<PatientTO> consumer);
+
+    List<VisitTO> findVisitsByPatientId(Long patientId);
+
+    /**
+     * Retrieves one page of a patient's visit history, ordered by visit time.
+     *
+     * @param patientId the unique identifier of the patient whose visits are to be fetched
+     * @param after     the cursor returned with the previous page, or null to fetch the first page
+     * @param size      the maximum number of visits in the page
+     * @return the page of visits, empty if the patient has no visits or does not exist
+     */
+    KeysetPage<VisitTO> findVisitsByPatientId(Long patientId, PageCursor after, int size);
 
 
     /**
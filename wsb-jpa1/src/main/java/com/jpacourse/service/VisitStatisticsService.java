@@ -0,0 +1,23 @@
+package com.jpacourse.service;
+
+import com.jpacourse.dto.VisitStatisticsTO;
+import com.jpacourse.persistence.enums.StatisticsDimension;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Service interface for reading the visit statistics shown on the management dashboards.
+ */
+public interface VisitStatisticsService {
+
+    /**
+     * Reads the monthly visit counts of one dimension for a range of months.
+     *
+     * @param dimension the dimension to read
+     * @param from      the first month, inclusive
+     * @param to        the last month, inclusive
+     * @return the buckets ordered by month and key
+     */
+    List<VisitStatisticsTO> findByDimension(StatisticsDimension dimension, YearMonth from, YearMonth to);
+}
@@ -1,6 +1,7 @@
 package com.jpacourse.service.impl;
 
 import com.jpacourse.dto.AddressTO;
+import com.jpacourse.dto.BulkLookupTO;
 import com.jpacourse.mapper.AddressMapper;
 import com.jpacourse.persistence.dao.AddressDao;
 import com.jpacourse.persistence.entity.AddressEntity;
@@ -9,13 +10,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
 /**
  * Service implementation for managing addresses.
  * This class implements the {@link AddressService} interface and provides business logic for address-related operations.
  * It interacts with the {@link AddressDao} to retrieve, save, and delete address data.
  */
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class AddressServiceImpl implements AddressService {
 
     private final AddressDao addressDao;
@@ -43,4 +49,40 @@ public class AddressServiceImpl implements AddressService {
         final AddressEntity entity = addressDao.findOne(id);
         return AddressMapper.mapToTO(entity);
     }
+
+    /**
+     * Retrieves the version of an address without loading the address.
+     *
+     * @param id the unique identifier of the address
+     * @return the version of the address, or null if no address is found with the provided ID
+     */
+    @Override
+    public Long findVersionById(Long id) {
+        return addressDao.findVersionById(id);
+    }
+
+    /**
+     * Retrieves the addresses with the given IDs.
+     * The addresses are read with a single multi-load, which fetches them in batches instead of one statement per ID.
+     * IDs without an address are reported in the result instead of failing the whole lookup.
+     *
+     * @param ids the unique identifiers of the addresses to be fetched
+     * @return a {@link BulkLookupTO} with the found addresses in the order of the given IDs and the IDs that were not found
+     */
+    @Override
+    public BulkLookupTO<AddressTO> findByIds(Collection<Long> ids) {
+        final List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        final List<AddressEntity> entities = addressDao.findAllById(distinctIds);
+
+        final BulkLookupTO<AddressTO> result = new BulkLookupTO<>();
+        for (int i = 0; i < distinctIds.size(); i++) {
+            final AddressEntity entity = entities.get(i);
+            if (entity != null) {
+                result.getFound().add(AddressMapper.mapToTO(entity));
+            } else {
+                result.getMissingIds().add(distinctIds.get(i));
+            }
+        }
+        return result;
+    }
 }
@@ -0,0 +1,88 @@
+package com.jpacourse.service.impl;
+
+import com.jpacourse.dto.CacheRegionStatisticsTO;
+import com.jpacourse.service.CacheStatisticsService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.persistence.EntityManagerFactory;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Service implementation for reading second-level cache statistics.
+ * Hit, miss and put counters come from the Hibernate {@link Statistics}, while eviction counts,
+ * which Hibernate does not track, are read from the JSR-107 statistics MBeans of the cache provider.
+ */
+@Service
+public class CacheStatisticsServiceImpl implements CacheStatisticsService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    /**
+     * Constructs a {@link CacheStatisticsServiceImpl} with the given {@link EntityManagerFactory}.
+     *
+     * @param pEntityManagerFactory the {@link EntityManagerFactory} whose statistics are read
+     */
+    @Autowired
+    public CacheStatisticsServiceImpl(EntityManagerFactory pEntityManagerFactory) {
+        entityManagerFactory = pEntityManagerFactory;
+    }
+
+    /**
+     * Retrieves the statistics of every second-level cache region, sorted by region name.
+     *
+     * @return a list of {@link CacheRegionStatisticsTO} objects, one per cache region
+     */
+    @Override
+    public List<CacheRegionStatisticsTO> findAll() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(regionNames);
+
+        List<CacheRegionStatisticsTO> result = new ArrayList<>(regionNames.length);
+        for (String regionName : regionNames) {
+            CacheRegionStatistics regionStatistics = statistics.getDomainDataRegionStatistics(regionName);
+            if (regionStatistics == null) continue;
+
+            CacheRegionStatisticsTO statisticsTO = new CacheRegionStatisticsTO();
+            statisticsTO.setRegionName(regionName);
+            statisticsTO.setHitCount(regionStatistics.getHitCount());
+            statisticsTO.setMissCount(regionStatistics.getMissCount());
+            statisticsTO.setPutCount(regionStatistics.getPutCount());
+            statisticsTO.setElementCountInMemory(regionStatistics.getElementCountInMemory());
+            statisticsTO.setEvictionCount(findEvictionCount(regionName));
+            result.add(statisticsTO);
+        }
+        return result;
+    }
+
+    /**
+     * Reads the eviction count of a cache from its JSR-107 {@code CacheStatistics} MBean.
+     *
+     * @param cacheName the name of the cache, which equals the region name
+     * @return the number of evictions, or 0 if the cache publishes no statistics
+     */
+    private long findEvictionCount(String cacheName) {
+        try {
+            long evictions = 0;
+            ObjectName pattern = new ObjectName("javax.cache:type=CacheStatistics,Cache=" + cacheName + ",*");
+            for (ObjectName name : mBeanServer.queryNames(pattern, null)) {
+                evictions += (Long) mBeanServer.getAttribute(name, "CacheEvictions");
+            }
+            return evictions;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not read cache statistics of " + cacheName, e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.jpacourse.service.impl;
+
+import com.jpacourse.dto.VisitTO;
+import com.jpacourse.persistence.dao.DoctorDao;
+import com.jpacourse.service.DoctorService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service implementation for reading doctors' schedules.
+ * This class implements the {@link DoctorService} interface and delegates the schedule queries to the {@link DoctorDao}.
+ */
+@Service
+@Transactional(readOnly = true)
+public class DoctorServiceImpl implements DoctorService {
+
+    private final DoctorDao doctorDao;
+
+    /**
+     * Constructs a {@link DoctorServiceImpl} with the given {@link DoctorDao}.
+     *
+     * @param pDoctorDao the {@link DoctorDao} to be injected into this service implementation
+     */
+    @Autowired
+    public DoctorServiceImpl(DoctorDao pDoctorDao) {
+        this.doctorDao = pDoctorDao;
+    }
+
+    /**
+     * Finds the visits booked with a doctor that start in the given time range, read as {@link VisitTO} projections.
+     *
+     * @param doctorId the unique identifier of the doctor
+     * @param from     the start of the range, inclusive
+     * @param to       the end of the range, exclusive
+     * @return the visits ordered by time, or an empty list if there are none
+     */
+    @Override
+    public List<VisitTO> findVisitsByDoctorId(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        return doctorDao.findVisitsByDoctorId(doctorId, from, to);
+    }
+
+    /**
+     * Finds the free slots of a doctor in the given time range.
+     *
+     * @param doctorId   the unique identifier of the doctor
+     * @param from       the start of the first slot
+     * @param to         the end of the range
+     * @param slotLength the length of a slot
+     * @return the start times of the free slots in ascending order
+     */
+    @Override
+    public List<LocalDateTime> findFreeSlots(Long doctorId, LocalDateTime from, LocalDateTime to, Duration slotLength) {
+        return doctorDao.findFreeSlots(doctorId, from, to, slotLength);
+    }
+
+    /**
+     * Finds the first free slot of a doctor at or after the given time.
+     *
+     * @param doctorId   the unique identifier of the doctor
+     * @param from       the start of the first slot considered
+     * @param until      the end of the search
+     * @param slotLength the length of a slot
+     * @return the start time of the first free slot, or an empty {@link Optional} if there is none
+     */
+    @Override
+    public Optional<LocalDateTime> findNextAvailableSlot(Long doctorId, LocalDateTime from, LocalDateTime until, Duration slotLength) {
+        return doctorDao.findNextAvailableSlot(doctorId, from, until, slotLength);
+    }
+}
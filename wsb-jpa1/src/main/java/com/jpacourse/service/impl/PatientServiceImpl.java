@@ -1,18 +1,26 @@
 package com.jpacourse.service.impl;
 
+import com.jpacourse.dto.BulkLookupTO;
 import com.jpacourse.dto.PatientTO;
+import com.jpacourse.dto.PatientVersionTO;
+import com.jpacourse.dto.VisitTO;
 import com.jpacourse.mapper.PatientMapper;
+import com.jpacourse.persistence.dao.KeysetPage;
+import com.jpacourse.persistence.dao.PageCursor;
 import com.jpacourse.persistence.dao.PatientDao;
 import com.jpacourse.persistence.entity.PatientEntity;
-import com.jpacourse.persistence.entity.VisitEntity;
 import com.jpacourse.service.PatientService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Service implementation for managing patients.
@@ -20,11 +28,14 @@ import java.util.List;
  * It interacts with the {@link PatientDao} to retrieve, delete, and manipulate patient data.
  */
 @Service
-@Transactional
+@Transactional(readOnly = true)
 public class PatientServiceImpl implements PatientService {
 
     private final PatientDao patientDao;
 
+    @Value("${spring.jpa.properties.hibernate.default_batch_fetch_size:50}")
+    private int exportChunkSize;
+
     /**
      * Constructs a {@link PatientServiceImpl} with the given {@link PatientDao}.
      * This constructor is used to inject the {@link PatientDao} dependency.
@@ -38,15 +49,53 @@ public class PatientServiceImpl implements PatientService {
 
     /**
      * Retrieves a patient by their unique identifier (ID).
-     * This method fetches a {@link PatientEntity} from the database and converts it to a {@link PatientTO} using the {@link PatientMapper}.
+     * The {@link PatientTO} is read with projection queries that select only the columns it shows,
+     * so no patient, visit or doctor entity is loaded or dirty-checked.
      *
      * @param id the unique identifier of the patient to be fetched
      * @return a {@link PatientTO} object containing the patient's data, or null if no patient is found with the provided ID
      */
     @Override
     public PatientTO findById(Long id) {
-        final PatientEntity entity = patientDao.findOne(id);
-        return PatientMapper.mapToTO(entity);
+        return patientDao.findTOById(id);
+    }
+
+    /**
+     * Retrieves the version state of a patient without loading the patient.
+     * It is cheap enough to be read on every request, e.g. to answer conditional requests.
+     *
+     * @param id the unique identifier of the patient
+     * @return a {@link PatientVersionTO} object, or null if no patient is found with the provided ID
+     */
+    @Override
+    public PatientVersionTO findVersionById(Long id) {
+        return patientDao.findVersionById(id);
+    }
+
+    /**
+     * Retrieves the patients with the given IDs.
+     * The patients are read with a single multi-load, which fetches them in batches instead of one statement per ID;
+     * their addresses and visits are then initialized in batches as well.
+     * IDs without a patient are reported in the result instead of failing the whole lookup.
+     *
+     * @param ids the unique identifiers of the patients to be fetched
+     * @return a {@link BulkLookupTO} with the found patients in the order of the given IDs and the IDs that were not found
+     */
+    @Override
+    public BulkLookupTO<PatientTO> findByIds(Collection<Long> ids) {
+        final List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        final List<PatientEntity> entities = patientDao.findAllById(distinctIds);
+
+        final BulkLookupTO<PatientTO> result = new BulkLookupTO<>();
+        for (int i = 0; i < distinctIds.size(); i++) {
+            final PatientEntity entity = entities.get(i);
+            if (entity != null) {
+                result.getFound().add(PatientMapper.mapToTO(entity));
+            } else {
+                result.getMissingIds().add(distinctIds.get(i));
+            }
+        }
+        return result;
     }
 
     /**
@@ -54,29 +103,55 @@ public class PatientServiceImpl implements PatientService {
      * If the patient exists, this method will return their list of visits; otherwise, it will return an empty list.
      *
      * @param patientId the unique identifier of the patient whose visits are to be fetched
-     * @return a list of {@link VisitEntity} objects associated with the patient, or an empty list if no visits are found
+     * @return a list of {@link VisitTO} objects associated with the patient, or an empty list if no visits are found
      */
     @Override
-    public List<VisitEntity> findVisitsByPatientId(Long patientId) {
-        PatientEntity patient = patientDao.findOne(patientId);
-        if (patient != null) return patient.getVisits() != null ? patient.getVisits() : Collections.emptyList();
-        else return new ArrayList<>();
+    public List<VisitTO> findVisitsByPatientId(Long patientId) {
+        return patientDao.findVisitTOsByPatientId(patientId);
+    }
+
+    /**
+     * Retrieves one page of a patient's visit history, ordered by visit time.
+     * Pages are read with keyset pagination, so deep pages are as cheap as the first one.
+     *
+     * @param patientId the unique identifier of the patient whose visits are to be fetched
+     * @param after     the cursor returned with the previous page, or null to fetch the first page
+     * @param size      the maximum number of visits in the page
+     * @return the page of {@link VisitTO} objects
+     */
+    @Override
+    public KeysetPage<VisitTO> findVisitsByPatientId(Long patientId, PageCursor after, int size) {
+        return patientDao.findVisitsByPatientId(patientId, after, size);
+    }
+
+    /**
+     * Passes every patient to the given consumer, reading them from a forward-only, read-only cursor.
+     * Patients are read in chunks of {@code default_batch_fetch_size}, so the addresses, visits, doctors and treatments
+     * of a whole chunk are initialized with one batch query each. Every chunk is detached once it has been consumed,
+     * which keeps memory use flat however many patients there are.
+     *
+     * @param consumer the consumer receiving the {@link PatientTO} of each patient
+     */
+    @Override
+    public void exportAll(Consumer<PatientTO> consumer) {
+        patientDao.forEachReadOnlyChunk(exportChunkSize,
+                chunk -> chunk.forEach(patient -> consumer.accept(PatientMapper.mapToTO(patient))));
     }
 
     /**
      * Deletes a patient from the database by their unique identifier (ID).
-     * If the patient exists, they will be removed from the database.
+     * If the patient exists, they will be removed from the database together with their visits and address,
+     * using set-based deletes that do not load the patient or their visits.
      * If no patient is found with the given ID, a {@link RuntimeException} will be thrown.
-     * This operation will also trigger cascading delete behavior for related entities, such as visits.
      *
      * @param patientId the unique identifier of the patient to be deleted
      * @throws RuntimeException if no patient is found with the provided ID
      */
     @Override
+    @Transactional
     public void deletePatient(Long patientId) {
-        PatientEntity patientEntity = patientDao.findOne(patientId);
-
-        if (patientEntity != null) patientDao.delete(patientEntity);
-        else throw new RuntimeException("Patient not found with ID: " + patientId);
+        if (patientDao.deleteByIds(Collections.singletonList(patientId)) == 0) {
+            throw new RuntimeException("Patient not found with ID: " + patientId);
+        }
     }
 }
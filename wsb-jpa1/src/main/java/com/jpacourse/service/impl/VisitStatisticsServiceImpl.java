@@ -0,0 +1,46 @@
+package com.jpacourse.service.impl;
+
+import com.jpacourse.dto.VisitStatisticsTO;
+import com.jpacourse.persistence.dao.VisitStatisticsDao;
+import com.jpacourse.persistence.enums.StatisticsDimension;
+import com.jpacourse.service.VisitStatisticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Service implementation for reading the visit statistics.
+ * The counters are maintained together with the visits, so a read touches only the requested buckets.
+ */
+@Service
+@Transactional(readOnly = true)
+public class VisitStatisticsServiceImpl implements VisitStatisticsService {
+
+    private final VisitStatisticsDao visitStatisticsDao;
+
+    /**
+     * Constructs a {@link VisitStatisticsServiceImpl} with the given {@link VisitStatisticsDao}.
+     *
+     * @param pVisitStatisticsDao the {@link VisitStatisticsDao} to be injected into this service implementation
+     */
+    @Autowired
+    public VisitStatisticsServiceImpl(VisitStatisticsDao pVisitStatisticsDao) {
+        this.visitStatisticsDao = pVisitStatisticsDao;
+    }
+
+    /**
+     * Reads the monthly visit counts of one dimension for a range of months.
+     *
+     * @param dimension the dimension to read
+     * @param from      the first month, inclusive
+     * @param to        the last month, inclusive
+     * @return the buckets ordered by month and key
+     */
+    @Override
+    public List<VisitStatisticsTO> findByDimension(StatisticsDimension dimension, YearMonth from, YearMonth to) {
+        return visitStatisticsDao.findByDimension(dimension, from, to);
+    }
+}
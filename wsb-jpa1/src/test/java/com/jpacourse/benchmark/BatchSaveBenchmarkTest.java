@@ -0,0 +1,70 @@
+package com.jpacourse.benchmark;
+
+import com.jpacourse.persistence.dao.AddressDao;
+import com.jpacourse.persistence.entity.AddressEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark comparing {@link AddressDao#saveAll(java.util.Collection)} with a loop of single
+ * {@link AddressDao#save(Object)} calls, each of which runs in its own transaction.
+ * <p>
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=BatchSaveBenchmarkTest}.
+ */
+@SpringBootTest
+@RunWith(SpringRunner.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BatchSaveBenchmarkTest {
+
+    private static final int ROWS = 5_000;
+
+    @Autowired
+    private AddressDao addressDao;
+
+    /**
+     * Saves the same number of addresses both ways and prints the achieved rows per second.
+     */
+    @Test
+    void compareSingleSaveWithSaveAll() {
+        long countBefore = addressDao.count();
+
+        long singleStart = System.nanoTime();
+        for (AddressEntity address : createAddresses("single")) {
+            addressDao.save(address);
+        }
+        long singleNanos = System.nanoTime() - singleStart;
+
+        long batchStart = System.nanoTime();
+        addressDao.saveAll(createAddresses("batch"));
+        long batchNanos = System.nanoTime() - batchStart;
+
+        assertEquals(countBefore + 2L * ROWS, addressDao.count());
+        System.out.printf("save() loop: %.0f rows/s%n", rowsPerSecond(singleNanos));
+        System.out.printf("saveAll():   %.0f rows/s%n", rowsPerSecond(batchNanos));
+    }
+
+    private static List<AddressEntity> createAddresses(String prefix) {
+        List<AddressEntity> addresses = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            AddressEntity address = new AddressEntity();
+            address.setAddressLine1(prefix + " line " + i);
+            address.setCity("Benchmark City");
+            address.setPostalCode("00-000");
+            addresses.add(address);
+        }
+        return addresses;
+    }
+
+    private static double rowsPerSecond(long nanos) {
+        return ROWS / (nanos / 1_000_000_000.0);
+    }
+}
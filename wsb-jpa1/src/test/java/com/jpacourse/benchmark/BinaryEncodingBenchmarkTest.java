@@ -0,0 +1,100 @@
+package com.jpacourse.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jpacourse.dto.PatientTO;
+import com.jpacourse.dto.VisitTO;
+import com.jpacourse.persistence.enums.Specialization;
+import com.jpacourse.persistence.enums.TreatmentType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark comparing the JSON encoding of a patient dossier with the CBOR and Smile encodings offered through
+ * content negotiation. For every encoding it prints the payload size and the time to serialize and to deserialize
+ * a dossier of {@value #VISITS} visits, using the object mappers of the registered message converters.
+ * <p>
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=BinaryEncodingBenchmarkTest}.
+ */
+@SpringBootTest
+@RunWith(SpringRunner.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BinaryEncodingBenchmarkTest {
+
+    private static final int VISITS = 500;
+
+    private static final int ITERATIONS = 2_000;
+
+    @Autowired
+    private ObjectMapper jsonMapper;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    /**
+     * Encodes and decodes the same dossier as JSON, CBOR and Smile.
+     */
+    @Test
+    void compareJsonCborAndSmile() throws Exception {
+        PatientTO dossier = createDossier();
+
+        measure("JSON", jsonMapper, dossier);
+        measure("CBOR", cborConverter.getObjectMapper(), dossier);
+        measure("Smile", smileConverter.getObjectMapper(), dossier);
+    }
+
+    private void measure(String label, ObjectMapper mapper, PatientTO dossier) throws Exception {
+        byte[] payload = mapper.writeValueAsBytes(dossier);
+        assertEquals(VISITS, mapper.readValue(payload, PatientTO.class).getVisits().size());
+
+        for (int i = 0; i < ITERATIONS / 10; i++) {
+            mapper.readValue(mapper.writeValueAsBytes(dossier), PatientTO.class);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(dossier);
+        }
+        long serialize = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.readValue(payload, PatientTO.class);
+        }
+        long deserialize = System.nanoTime() - start;
+
+        System.out.printf("%s: %d bytes, %.1f us to serialize, %.1f us to deserialize%n",
+                label, payload.length, serialize / 1_000.0 / ITERATIONS, deserialize / 1_000.0 / ITERATIONS);
+    }
+
+    private static PatientTO createDossier() {
+        PatientTO patient = new PatientTO(1L, "Alice", "Green", "555-1001", "alicegreen@email.com", "PAT001",
+                LocalDate.of(1990, 5, 14), 'F', 6L, "Wroclaw", "ul. Legnicka 12", "m. 4", "54-203");
+
+        Specialization[] specializations = Specialization.values();
+        TreatmentType[] treatmentTypes = TreatmentType.values();
+        LocalDateTime time = LocalDateTime.of(2015, 1, 5, 8, 0);
+        for (int i = 0; i < VISITS; i++) {
+            long doctorId = i % 12 + 1;
+            patient.getVisits().add(new VisitTO((long) i + 1, time.plusDays(7L * i), "Follow-up visit number " + i,
+                    doctorId, "Doctor" + doctorId, "Kowalski", "DOC" + (100 + doctorId),
+                    specializations[i % specializations.length],
+                    i % 3 == 0 ? null : (long) i + 1, "Routine examination and test " + i,
+                    treatmentTypes[i % treatmentTypes.length]));
+        }
+        return patient;
+    }
+}
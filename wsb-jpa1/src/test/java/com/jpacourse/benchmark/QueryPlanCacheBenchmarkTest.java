@@ -0,0 +1,89 @@
+package com.jpacourse.benchmark;
+
+import com.jpacourse.persistence.dao.PatientDao;
+import com.jpacourse.persistence.entity.PatientEntity;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.util.function.LongConsumer;
+
+/**
+ * Benchmark comparing ad-hoc JPQL strings built on each call with the named queries registered at startup.
+ * For both variants it prints the Hibernate query plan cache hit ratio and the average latency per call.
+ * The ad-hoc strings embed a literal that differs on every call, so each of them misses the query plan cache
+ * and is parsed again, as concatenated queries with inlined values are.
+ * <p>
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=QueryPlanCacheBenchmarkTest}.
+ */
+@SpringBootTest
+@RunWith(SpringRunner.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Transactional
+class QueryPlanCacheBenchmarkTest {
+
+    private static final int CALLS = 20_000;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PatientDao patientDao;
+
+    /**
+     * Runs the count and last-name lookups first through concatenated JPQL strings, then through named queries.
+     * The ad-hoc strings exclude a negative, never existing ID that changes with every call.
+     */
+    @Test
+    void compareAdHocAndNamedQueries() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        try {
+            measure("ad-hoc JPQL", statistics, call -> {
+                entityManager.createQuery("Select count(*) from " + PatientEntity.class.getName() + " p where p.id <> " + -call)
+                        .getSingleResult();
+                entityManager.createQuery("SELECT p FROM PatientEntity p WHERE p.lastName = 'Green' AND p.id <> " + -call,
+                                PatientEntity.class)
+                        .getResultList();
+            });
+            measure("named queries", statistics, call -> {
+                patientDao.count();
+                patientDao.findByLastName("Green");
+            });
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+    }
+
+    private static void measure(String label, Statistics statistics, LongConsumer call) {
+        long calls = 0;
+        for (int i = 0; i < CALLS / 10; i++) {
+            call.accept(++calls);
+        }
+        statistics.clear();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < CALLS; i++) {
+            call.accept(++calls);
+        }
+        long nanos = System.nanoTime() - start;
+
+        long hits = statistics.getQueryPlanCacheHitCount();
+        long misses = statistics.getQueryPlanCacheMissCount();
+        System.out.printf("%s: plan cache hit ratio %.3f (%d hits, %d misses), %.1f us per call%n",
+                label, hits / (double) Math.max(1, hits + misses), hits, misses, nanos / 1_000.0 / CALLS);
+    }
+}
@@ -0,0 +1,67 @@
+package com.jpacourse.benchmark;
+
+import com.jpacourse.persistence.dao.PatientDao;
+import com.jpacourse.persistence.dao.PatientFetchPlan;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Benchmark comparing a read request served in a read-write transaction with the same request served in
+ * a read-only one. For both variants it prints the CPU time and the heap allocated per request by the calling thread,
+ * which includes the dirty-check snapshots and the flush at commit that read-only transactions skip.
+ * <p>
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=ReadOnlyTransactionBenchmarkTest}.
+ */
+@SpringBootTest
+@RunWith(SpringRunner.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ReadOnlyTransactionBenchmarkTest {
+
+    private static final int REQUESTS = 5_000;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PatientDao patientDao;
+
+    /**
+     * Loads all female patients with their visits, doctors and treatments, first read-write, then read-only.
+     */
+    @Test
+    void compareReadWriteAndReadOnlyTransactions() {
+        measure("read-write", false);
+        measure("read-only", true);
+    }
+
+    private void measure(String label, boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        Runnable request = () -> transaction.execute(status -> patientDao.findByGender('F', PatientFetchPlan.FULL_DOSSIER));
+
+        for (int i = 0; i < REQUESTS / 10; i++) {
+            request.run();
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long cpuBefore = threads.getCurrentThreadCpuTime();
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < REQUESTS; i++) {
+            request.run();
+        }
+        long cpu = threads.getCurrentThreadCpuTime() - cpuBefore;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        System.out.printf("%s: %.1f us CPU, %.1f KiB allocated per request%n",
+                label, cpu / 1_000.0 / REQUESTS, bytes / 1024.0 / REQUESTS);
+    }
+}
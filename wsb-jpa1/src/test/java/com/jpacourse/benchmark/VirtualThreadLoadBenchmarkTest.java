@@ -0,0 +1,94 @@
+package com.jpacourse.benchmark;
+
+import com.jpacourse.WsbJpaApplication;
+import com.jpacourse.config.VirtualThreads;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Load test comparing request handling on Tomcat's platform thread pool with the virtual thread mode.
+ * For both models it starts the application, opens {@value #CONNECTIONS} concurrent connections to a blocking
+ * endpoint several times and prints the throughput, the peak number of live threads and the heap in use.
+ * <p>
+ * Run with {@code mvn test -Pvirtual-threads -Dbenchmark=true -Dtest=VirtualThreadLoadBenchmarkTest} on Java 21+;
+ * pinned virtual threads are then reported on standard output. On older JVMs only the platform model is measured.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VirtualThreadLoadBenchmarkTest {
+
+    private static final int CONNECTIONS = 5_000;
+
+    private static final int ROUNDS = 5;
+
+    private static final String PATH = "/doctor/1/visits?from=2024-01-01T00:00:00&to=2024-04-01T00:00:00";
+
+    /**
+     * Serves the same load with platform threads, then with virtual threads.
+     */
+    @Test
+    void comparePlatformAndVirtualThreads() throws Exception {
+        measure("platform threads", false);
+
+        Assumptions.assumeTrue(VirtualThreads.isSupported(), "Virtual threads require Java 21 or newer");
+        measure("virtual threads", true);
+    }
+
+    private void measure(String label, boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(WsbJpaApplication.class)
+                .properties("server.port=0",
+                        "server.tomcat.accept-count=" + CONNECTIONS,
+                        "virtual-threads.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads,
+                        "spring.jpa.properties.hibernate.show_sql=false")
+                .run()) {
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + PATH);
+            HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+            runRound(client, uri);
+
+            ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            System.gc();
+            long heapBefore = memory.getHeapMemoryUsage().getUsed();
+            threads.resetPeakThreadCount();
+
+            long start = System.nanoTime();
+            long heapPeak = 0;
+            for (int round = 0; round < ROUNDS; round++) {
+                runRound(client, uri);
+                heapPeak = Math.max(heapPeak, memory.getHeapMemoryUsage().getUsed());
+            }
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            System.out.printf("%s: %.0f requests/s, %d peak live threads, %.1f MiB heap growth%n",
+                    label, CONNECTIONS * ROUNDS / seconds, threads.getPeakThreadCount(),
+                    (heapPeak - heapBefore) / 1024.0 / 1024.0);
+        }
+    }
+
+    private void runRound(HttpClient client, URI uri) {
+        List<CompletableFuture<HttpResponse<Void>>> responses = new ArrayList<>(CONNECTIONS);
+        for (int i = 0; i < CONNECTIONS; i++) {
+            responses.add(client.sendAsync(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.discarding()));
+        }
+        for (CompletableFuture<HttpResponse<Void>> response : responses) {
+            if (response.join().statusCode() != 200) throw new AssertionError("Unexpected status " + response.join().statusCode());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.jpacourse.benchmark;
+
+import com.jpacourse.persistence.dao.DoctorDao;
+import com.jpacourse.persistence.dao.PatientDao;
+import com.jpacourse.persistence.lock.SlotAlreadyBookedException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark booking visits from many threads against a few doctors and a small set of slots.
+ * It prints the throughput and the number of accepted, rejected and failed bookings, and checks that
+ * every slot ended up booked at most once.
+ * <p>
+ * Run with {@code mvn test -Dbenchmark=true -Dtest=VisitBookingBenchmarkTest}.
+ */
+@SpringBootTest
+@RunWith(SpringRunner.class)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class VisitBookingBenchmarkTest {
+
+    private static final int THREADS = 32;
+
+    private static final int BOOKINGS_PER_THREAD = 200;
+
+    private static final long[] DOCTOR_IDS = {1L, 2L, 3L};
+
+    private static final int SLOTS_PER_DOCTOR = 400;
+
+    private static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2031, 1, 6, 8, 0);
+
+    private static final Duration SLOT_LENGTH = Duration.ofMinutes(15);
+
+    @Autowired
+    private PatientDao patientDao;
+
+    @Autowired
+    private DoctorDao doctorDao;
+
+    /**
+     * Books random slots of random doctors from {@value #THREADS} threads at once.
+     */
+    @Test
+    void bookConcurrentlyAgainstFewDoctors() throws Exception {
+        AtomicLong accepted = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                        long doctorId = DOCTOR_IDS[random.nextInt(DOCTOR_IDS.length)];
+                        LocalDateTime time = FIRST_SLOT.plus(SLOT_LENGTH.multipliedBy(random.nextInt(SLOTS_PER_DOCTOR)));
+                        try {
+                            patientDao.addVisitToPatient(1L + random.nextInt(5), doctorId, time, "Benchmark booking");
+                            accepted.incrementAndGet();
+                        } catch (SlotAlreadyBookedException e) {
+                            rejected.incrementAndGet();
+                        } catch (RuntimeException e) {
+                            failed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long nanos = System.nanoTime() - begin;
+
+            int attempts = THREADS * BOOKINGS_PER_THREAD;
+            System.out.printf("%d bookings in %d ms (%.0f per second): %d accepted, %d rejected, %d failed%n",
+                    attempts, nanos / 1_000_000, attempts / (nanos / 1e9), accepted.get(), rejected.get(), failed.get());
+        } finally {
+            executor.shutdown();
+        }
+
+        LocalDateTime end = FIRST_SLOT.plus(SLOT_LENGTH.multipliedBy(SLOTS_PER_DOCTOR));
+        long booked = 0;
+        for (long doctorId : DOCTOR_IDS) {
+            booked += doctorDao.findVisitsByDoctorId(doctorId, FIRST_SLOT, end).size();
+        }
+        assertEquals(accepted.get(), booked);
+        assertEquals(0, failed.get());
+    }
+}
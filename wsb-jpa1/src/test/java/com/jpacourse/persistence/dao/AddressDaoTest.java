@@ -1,14 +1,27 @@
 package com.jpacourse.persistence.dao;
 
 import com.jpacourse.persistence.entity.AddressEntity;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Stream;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Unit tests for the AddressDao class.
@@ -21,6 +34,12 @@ public class AddressDaoTest {
     @Autowired
     private AddressDao addressDao;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     /**
      * Test to verify that an AddressEntity can be retrieved from the database
      * by its ID, and that the postal code is correct.
@@ -94,4 +113,143 @@ public class AddressDaoTest {
         final AddressEntity removed = addressDao.findOne(saved.getId());
         assertThat(removed).isNull();
     }
+
+    /**
+     * Test to verify that a collection of AddressEntity objects can be saved
+     * in one call, and that every saved address receives an ID.
+     */
+    @Test
+    public void testShouldSaveAllAddresses() {
+        AddressEntity first = new AddressEntity();
+        first.setAddressLine1("line1");
+        first.setCity("City1");
+        first.setPostalCode("11-111");
+        AddressEntity second = new AddressEntity();
+        second.setAddressLine1("line2");
+        second.setCity("City2");
+        second.setPostalCode("22-222");
+        long entitiesNumBefore = addressDao.count();
+
+        final List<AddressEntity> saved = addressDao.saveAll(Arrays.asList(first, second));
+
+        assertThat(saved).hasSize(2);
+        assertThat(saved).allMatch(address -> address.getId() != null);
+        assertThat(addressDao.count()).isEqualTo(entitiesNumBefore + 2);
+    }
+
+    /**
+     * Test to verify that saveAll sends its inserts in JDBC batches, so the
+     * number of prepared statements grows with the number of batches
+     * rather than with the number of addresses. The inserts are rolled back.
+     */
+    @Transactional
+    @Test
+    public void testShouldBatchInsertsOfSaveAll() {
+        final List<AddressEntity> addresses = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            AddressEntity address = new AddressEntity();
+            address.setAddressLine1("line" + i);
+            address.setCity("Batch City");
+            address.setPostalCode("33-333");
+            addresses.add(address);
+        }
+        final Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        final boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        try {
+            long statementsBefore = statistics.getPrepareStatementCount();
+
+            addressDao.saveAll(addresses);
+
+            assertThat(statistics.getPrepareStatementCount() - statementsBefore).isLessThanOrEqualTo(10);
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+    }
+
+    /**
+     * Test to verify that streaming and chunked iteration both visit
+     * every address exactly as many times as there are rows in the table.
+     */
+    @Transactional
+    @Test
+    public void testShouldStreamAndChunkAllAddresses() {
+        long entitiesNum = addressDao.count();
+
+        try (Stream<AddressEntity> addresses = addressDao.streamAll()) {
+            assertThat(addresses.count()).isEqualTo(entitiesNum);
+        }
+
+        final List<Integer> chunkSizes = new ArrayList<>();
+        addressDao.forEachChunk(3, chunk -> chunkSizes.add(chunk.size()));
+
+        assertThat(chunkSizes).allMatch(size -> size <= 3);
+        assertThat(chunkSizes.stream().mapToLong(Integer::longValue).sum()).isEqualTo(entitiesNum);
+    }
+
+    /**
+     * Test to verify that chunked iteration detaches only the entities it loaded,
+     * leaving an address the caller already held managed with its unflushed change.
+     */
+    @Transactional
+    @Test
+    public void testShouldKeepCallerEntitiesManagedWhileChunking() {
+        AddressEntity held = addressDao.findOne(1L);
+        held.setCity("Changed City");
+
+        final List<AddressEntity> read = new ArrayList<>();
+        addressDao.forEachReadOnlyChunk(3, read::addAll);
+        addressDao.forEachChunk(3, chunk -> { });
+
+        assertThat(entityManager.contains(held)).isTrue();
+        assertThat(read).filteredOn(address -> address != held).noneMatch(entityManager::contains);
+        entityManager.flush();
+        entityManager.clear();
+        assertThat(addressDao.findOne(1L).getCity()).isEqualTo("Changed City");
+    }
+
+    /**
+     * Test to verify that existence checks report existing and missing
+     * addresses, both for a single ID and for a batch of IDs.
+     */
+    @Test
+    public void testShouldCheckAddressExistence() {
+        assertThat(addressDao.exists(1L)).isTrue();
+        assertThat(addressDao.exists(-1L)).isFalse();
+
+        final BitSet existing = addressDao.existsAll(Arrays.asList(1L, -1L, 2L));
+
+        assertThat(existing.get(0)).isTrue();
+        assertThat(existing.get(1)).isFalse();
+        assertThat(existing.get(2)).isTrue();
+    }
+
+    /**
+     * Test to verify that a multi-ID lookup returns the addresses in the
+     * order of the requested IDs, with null in place of a missing address.
+     */
+    @Test
+    public void testShouldFindAllAddressesByIdInRequestedOrder() {
+        final List<AddressEntity> addresses = addressDao.findAllById(Arrays.asList(2L, -1L, 1L));
+
+        assertThat(addresses).hasSize(3);
+        assertThat(addresses.get(0).getId()).isEqualTo(2L);
+        assertThat(addresses.get(1)).isNull();
+        assertThat(addresses.get(2).getId()).isEqualTo(1L);
+    }
+
+    /**
+     * Test to verify that multi-ID lookups reject more IDs than fit in one batch.
+     */
+    @Test
+    public void testShouldRejectTooManyIdsInOneLookup() {
+        final List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= Dao.MAX_IDS_PER_LOOKUP + 1; id++) {
+            ids.add(id);
+        }
+
+        assertThatThrownBy(() -> addressDao.findAllById(ids)).isInstanceOf(InvalidDataAccessApiUsageException.class);
+        assertThatThrownBy(() -> addressDao.existsAll(ids)).isInstanceOf(InvalidDataAccessApiUsageException.class);
+        assertThat(addressDao.findAllById(ids.subList(0, Dao.MAX_IDS_PER_LOOKUP))).hasSize(Dao.MAX_IDS_PER_LOOKUP);
+    }
 }
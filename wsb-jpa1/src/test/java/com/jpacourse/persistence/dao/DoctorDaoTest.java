@@ -0,0 +1,101 @@
+package com.jpacourse.persistence.dao;
+
+import com.jpacourse.dto.VisitTO;
+import com.jpacourse.persistence.entity.DoctorEntity;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+class DoctorDaoTest {
+
+    private static final Duration HALF_HOUR = Duration.ofMinutes(30);
+
+    @Autowired
+    private DoctorDao doctorDao;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testSecondFindOneIsServedFromSecondLevelCache() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        try {
+            doctorDao.findOne(2L);
+
+            long hitsBefore = statistics.getDomainDataRegionStatistics("doctor").getHitCount();
+            long statementsBefore = statistics.getPrepareStatementCount();
+            DoctorEntity doctor = doctorDao.findOne(2L);
+
+            assertEquals("Smith", doctor.getLastName());
+            assertEquals(hitsBefore + 1, statistics.getDomainDataRegionStatistics("doctor").getHitCount());
+            assertEquals(statementsBefore, statistics.getPrepareStatementCount());
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+    }
+
+    @Test
+    void testFindVisitsByDoctorIdInTimeRange() {
+        List<VisitTO> visits = doctorDao.findVisitsByDoctorId(1L,
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 4, 1, 0, 0));
+
+        assertEquals(1, visits.size());
+        assertEquals("Annual checkup", visits.get(0).getDescription());
+        assertEquals(1L, visits.get(0).getDoctor().getId());
+        assertEquals("Follow-up consultation", doctorDao.findVisitsByDoctorId(1L,
+                LocalDateTime.of(2024, 6, 1, 0, 0), LocalDateTime.of(2024, 7, 1, 0, 0)).get(0).getDescription());
+    }
+
+    @Test
+    void testFindFreeSlotsSkipsBookedSlot() {
+        List<LocalDateTime> free = doctorDao.findFreeSlots(1L,
+                LocalDateTime.of(2024, 1, 1, 9, 0), LocalDateTime.of(2024, 1, 1, 12, 0), HALF_HOUR);
+
+        assertEquals(5, free.size());
+        assertFalse(free.contains(LocalDateTime.of(2024, 1, 1, 10, 0)));
+        assertEquals(LocalDateTime.of(2024, 1, 1, 10, 30), free.get(2));
+    }
+
+    @Test
+    void testFindNextAvailableSlotAfterBookedSlot() {
+        Optional<LocalDateTime> next = doctorDao.findNextAvailableSlot(1L,
+                LocalDateTime.of(2024, 1, 1, 10, 0), LocalDateTime.of(2024, 1, 2, 0, 0), HALF_HOUR);
+
+        assertEquals(Optional.of(LocalDateTime.of(2024, 1, 1, 10, 30)), next);
+    }
+
+    @Test
+    void testSlotQueriesRejectUnboundedArguments() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> doctorDao.findFreeSlots(1L, from, from.plusHours(1), Duration.ZERO));
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> doctorDao.findFreeSlots(1L, from, from.minusHours(1), HALF_HOUR));
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> doctorDao.findFreeSlots(1L, from, from.plusYears(1), HALF_HOUR));
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> doctorDao.findNextAvailableSlot(1L, from, from.plusYears(1), HALF_HOUR));
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> doctorDao.findVisitsByDoctorId(1L, from, from.plusYears(1)));
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> doctorDao.findVisitsByDoctorId(1L, from, from.minusDays(1)));
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> doctorDao.findNextAvailableSlot(1L, from, from.plusDays(1), Duration.ofSeconds(1)));
+        assertEquals(Optional.of(from), doctorDao.findNextAvailableSlot(1L, from, from.plusDays(92), Duration.ofMinutes(1)));
+    }
+}
@@ -1,17 +1,34 @@
 package com.jpacourse.persistence.dao;
 
+import com.jpacourse.dto.PatientVersionTO;
+import com.jpacourse.dto.VisitTO;
 import com.jpacourse.persistence.entity.DoctorEntity;
+import com.jpacourse.persistence.entity.MedicalTreatmentEntity;
 import com.jpacourse.persistence.entity.PatientEntity;
 import com.jpacourse.persistence.entity.VisitEntity;
+import com.jpacourse.persistence.index.IdCardNumberTrigramIndex;
+import com.jpacourse.persistence.lock.SlotAlreadyBookedException;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -31,6 +48,18 @@ class PatientDaoTest {
     @Autowired
     private DoctorDao doctorDao;
 
+    @Autowired
+    private AddressDao addressDao;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Test
     void testAddVisitToPatient_Success() {
         PatientEntity patientEntity = patientDao.findOne(1L);
@@ -52,6 +81,70 @@ class PatientDaoTest {
         assertTrue(patientEntity.getVisits().contains(result));
     }
 
+    @Test
+    void testAddVisitToPatientLeavesVisitHistoryUnloaded() {
+        PatientEntity patientEntity = patientDao.findOne(2L);
+
+        VisitEntity result = patientDao.addVisitToPatient(2L, 1L, LocalDateTime.now(), "Follow-up");
+
+        assertNotNull(result.getId());
+        assertFalse(Hibernate.isInitialized(patientEntity.getVisits()));
+        InvalidDataAccessApiUsageException unknownDoctor = assertThrows(InvalidDataAccessApiUsageException.class,
+                () -> patientDao.addVisitToPatient(2L, 999L, LocalDateTime.now(), "Unknown doctor"));
+        assertTrue(unknownDoctor.getCause() instanceof IllegalArgumentException);
+    }
+
+    @Test
+    void testAddVisitToPatientRejectsDoubleBooking() {
+        LocalDateTime time = LocalDateTime.of(2030, 1, 7, 9, 0);
+        patientDao.addVisitToPatient(1L, 2L, time, "First booking");
+
+        assertThrows(SlotAlreadyBookedException.class, () -> patientDao.addVisitToPatient(3L, 2L, time, "Second booking"));
+        assertNotNull(patientDao.addVisitToPatient(3L, 3L, time, "Other doctor"));
+    }
+
+    @Test
+    void testEnhancedPatientTracksItsDirtyAttributes() {
+        PatientEntity patient = patientDao.findOne(3L);
+        assertTrue(patient instanceof SelfDirtinessTracker);
+        SelfDirtinessTracker tracker = (SelfDirtinessTracker) patient;
+        assertFalse(tracker.$$_hibernate_hasDirtyAttributes());
+
+        patient.setTelephoneNumber("555-3333");
+
+        assertArrayEquals(new String[]{"telephoneNumber"}, tracker.$$_hibernate_getDirtyAttributes());
+    }
+
+    @Test
+    void testFindOneLoadsOnlyWhatTheFetchPlanSelects() {
+        PatientEntity summary = patientDao.findOne(4L, PatientFetchPlan.SUMMARY);
+        assertFalse(Hibernate.isInitialized(summary.getVisits()));
+
+        List<PatientEntity> dossiers = patientDao.findByLastName("Green", PatientFetchPlan.FULL_DOSSIER);
+        assertEquals(1, dossiers.size());
+        assertTrue(Hibernate.isInitialized(dossiers.get(0).getVisits()));
+        assertFalse(dossiers.get(0).getVisits().isEmpty());
+    }
+
+    @Test
+    void testTouchingVisitsOfManyPatientsIsBatchFetched() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        boolean statisticsEnabled = statistics.isStatisticsEnabled();
+        statistics.setStatisticsEnabled(true);
+        try {
+            List<PatientEntity> patients = patientDao.findAll();
+            assertTrue(patients.size() > 2);
+
+            long statementsBefore = statistics.getPrepareStatementCount();
+            patients.forEach(patient -> patient.getVisits().size());
+            long statements = statistics.getPrepareStatementCount() - statementsBefore;
+
+            assertTrue(statements <= 2, "Visits of " + patients.size() + " patients took " + statements + " statements");
+        } finally {
+            statistics.setStatisticsEnabled(statisticsEnabled);
+        }
+    }
+
     @Test
     void testFindPatientsBySurname() {
         List<PatientEntity> patients = patientDao.findByLastName("Green");
@@ -60,6 +153,15 @@ class PatientDaoTest {
         assertEquals("Alice", patients.get(0).getFirstName());
     }
 
+    @Test
+    void testFindPatientsByLastNamePrefixIgnoresCase() {
+        List<PatientEntity> patients = patientDao.findByLastNamePrefix("bL", 10);
+        assertEquals(2, patients.size());
+        assertEquals("Black", patients.get(0).getLastName());
+        assertEquals("Blue", patients.get(1).getLastName());
+        assertTrue(patientDao.findByLastNamePrefix("b%", 10).isEmpty());
+    }
+
     @Test
     void testFindPatientsByIdCardNumberContaining() {
         List<PatientEntity> patients = patientDao.findPatientsByIdCardNumberContaining("102");
@@ -69,6 +171,18 @@ class PatientDaoTest {
         assertEquals("ID102938475", patients.get(1).getIdCardNumber());
     }
 
+    @Test
+    void testIdCardNumberIndexDeclinesLookupsItCannotAnswerSafely() {
+        IdCardNumberTrigramIndex index = new IdCardNumberTrigramIndex(entityManagerFactory, true, 1);
+        index.load();
+        assertEquals(Collections.singleton(2L), index.findIdsContaining("987").orElse(null));
+        assertFalse(index.findIdsContaining("102").isPresent());
+
+        IdCardNumberTrigramIndex disabled = new IdCardNumberTrigramIndex(entityManagerFactory, false, 1);
+        disabled.load();
+        assertFalse(disabled.findIdsContaining("987").isPresent());
+    }
+
     @Test
     public void testFindByGenderMale() {
         List<PatientEntity> malePatients = patientDao.findByGender('M');
@@ -133,4 +247,102 @@ class PatientDaoTest {
             executorService.shutdown();
         }
     }
+
+    @Test
+    public void testFindVisitsByPatientIdPagesWithCursor() {
+        KeysetPage<VisitTO> firstPage = patientDao.findVisitsByPatientId(1L, null, 1);
+
+        assertEquals(1, firstPage.getContent().size());
+        assertEquals("Annual checkup", firstPage.getContent().get(0).getDescription());
+        assertTrue(firstPage.hasNext());
+
+        PageCursor cursor = PageCursor.decode(firstPage.getNextCursor().encode());
+        KeysetPage<VisitTO> secondPage = patientDao.findVisitsByPatientId(1L, cursor, 1);
+
+        assertEquals(1, secondPage.getContent().size());
+        assertEquals("Eye examination", secondPage.getContent().get(0).getDescription());
+        assertFalse(secondPage.hasNext());
+    }
+
+    @Test
+    public void testDeleteByIdsRemovesPatientVisitsAndAddress() {
+        Long addressId = patientDao.findOne(2L).getAddress().getId();
+
+        int deleted = patientDao.deleteByIds(Collections.singletonList(2L));
+
+        assertEquals(1, deleted);
+        assertNull(patientDao.findOne(2L));
+        assertNull(addressDao.findOne(addressId));
+        assertEquals(0, patientDao.findVisitsByPatientId(2L, null, 10).getContent().size());
+    }
+
+    @Test
+    void testDeleteByIdsRemovesUnsharedTreatmentsAndKeepsOtherEntitiesManaged() {
+        PatientEntity otherPatient = patientDao.findOne(1L);
+        MedicalTreatmentEntity sharedTreatment = entityManager.find(MedicalTreatmentEntity.class, 2L);
+
+        patientDao.deleteByIds(Collections.singletonList(2L));
+
+        assertNull(entityManager.find(MedicalTreatmentEntity.class, 1L));
+        assertTrue(entityManager.contains(sharedTreatment));
+        assertTrue(entityManager.contains(otherPatient));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void testDeleteByIdsEvictsDeletedAddressesFromSecondLevelCache() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Long addressId = transaction.execute(status -> patientDao.findOne(2L).getAddress().getId());
+        transaction.execute(status -> addressDao.findOne(addressId));
+
+        transaction.executeWithoutResult(status -> {
+            status.setRollbackOnly();
+            patientDao.deleteByIds(Collections.singletonList(2L));
+            assertNull(addressDao.findOne(addressId));
+        });
+    }
+
+    @Test
+    public void testDeletePatientWithStaleVersionFails() {
+        long version = patientDao.findOne(3L).getVersion();
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> patientDao.deletePatient(3L, version + 1));
+    }
+
+    @Test
+    void testFindVersionByIdChangesWhenVisitIsAdded() {
+        PatientVersionTO before = patientDao.findVersionById(1L);
+
+        patientDao.addVisitToPatient(1L, 2L, LocalDateTime.of(2031, 3, 4, 9, 0), "Check-up");
+        PatientVersionTO after = patientDao.findVersionById(1L);
+
+        assertEquals(before.getVersion(), after.getVersion());
+        assertEquals(before.getRevision() + 1, after.getRevision());
+        assertNull(patientDao.findVersionById(999L));
+    }
+
+    @Test
+    void testFindVersionByIdChangesWhenEmbeddedRecordsAreWritten() {
+        PatientVersionTO before = patientDao.findVersionById(1L);
+        long otherRevision = patientDao.findVersionById(2L).getRevision();
+
+        doctorDao.findOne(4L).setTelephoneNumber("555-0199");
+        entityManager.flush();
+        assertEquals(before.getRevision() + 1, patientDao.findVersionById(1L).getRevision());
+
+        patientDao.findOne(1L).getAddress().setCity("Albany");
+        entityManager.flush();
+        assertEquals(before.getRevision() + 2, patientDao.findVersionById(1L).getRevision());
+
+        entityManager.find(VisitEntity.class, 1L).setDescription("Annual checkup, fasting");
+        entityManager.flush();
+        assertEquals(before.getRevision() + 3, patientDao.findVersionById(1L).getRevision());
+
+        entityManager.find(MedicalTreatmentEntity.class, 3L).setDescription("Flu vaccination");
+        entityManager.flush();
+        PatientVersionTO after = patientDao.findVersionById(1L);
+        assertEquals(before.getRevision() + 4, after.getRevision());
+        assertEquals(before.getVersion(), after.getVersion());
+        assertEquals(otherRevision, patientDao.findVersionById(2L).getRevision());
+    }
 }
@@ -0,0 +1,119 @@
+package com.jpacourse.persistence.dao;
+
+import com.jpacourse.dto.VisitStatisticsTO;
+import com.jpacourse.persistence.entity.PatientEntity;
+import com.jpacourse.persistence.entity.VisitEntity;
+import com.jpacourse.persistence.enums.StatisticsDimension;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@Transactional
+class VisitStatisticsDaoTest {
+
+    private static final YearMonth JANUARY_2024 = YearMonth.of(2024, 1);
+
+    @Autowired
+    private VisitStatisticsDao visitStatisticsDao;
+
+    @Autowired
+    private PatientDao patientDao;
+
+    @Autowired
+    private DoctorDao doctorDao;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void testSeededStatisticsCoverAllVisits() {
+        List<VisitStatisticsTO> buckets = visitStatisticsDao.findByDimension(StatisticsDimension.SPECIALIZATION,
+                JANUARY_2024, YearMonth.of(2024, 12));
+
+        assertEquals(9, buckets.stream().mapToLong(VisitStatisticsTO::getVisitCount).sum());
+    }
+
+    @Test
+    void testAddVisitIncrementsDoctorAndSpecializationBuckets() {
+        YearMonth month = YearMonth.of(2030, 3);
+        patientDao.addVisitToPatient(1L, 2L, month.atDay(4).atTime(9, 0), "Check-up");
+        patientDao.addVisitToPatient(2L, 2L, month.atDay(5).atTime(9, 0), "Check-up");
+
+        List<VisitStatisticsTO> doctors = visitStatisticsDao.findByDimension(StatisticsDimension.DOCTOR, month, month);
+        assertEquals(1, doctors.size());
+        assertEquals("2", doctors.get(0).getDimensionKey());
+        assertEquals(2, doctors.get(0).getVisitCount());
+
+        List<VisitStatisticsTO> specializations = visitStatisticsDao.findByDimension(StatisticsDimension.SPECIALIZATION, month, month);
+        assertEquals("DERMATOLOGIST", specializations.get(0).getDimensionKey());
+        assertEquals(2, specializations.get(0).getVisitCount());
+    }
+
+    @Test
+    void testDeletingPatientDecrementsBuckets() {
+        patientDao.deleteByIds(Collections.singletonList(1L));
+
+        List<VisitStatisticsTO> doctors = visitStatisticsDao.findByDimension(StatisticsDimension.DOCTOR, JANUARY_2024, JANUARY_2024);
+        assertEquals(0, doctors.get(0).getVisitCount());
+    }
+
+    @Test
+    void testVisitsCascadedFromPatientAreCountedOnFlush() {
+        YearMonth month = YearMonth.of(2030, 5);
+        PatientEntity patient = new PatientEntity();
+        patient.setFirstName("Frank");
+        patient.setLastName("Grey");
+        patient.setTelephoneNumber("555-1006");
+        patient.setPatientNumber("PAT006");
+        patient.setDateOfBirth(LocalDate.of(1980, 1, 1));
+        patient.setGender('M');
+        patient.setIdCardNumber("ID555555555");
+        VisitEntity visit = new VisitEntity();
+        visit.setTime(month.atDay(6).atTime(9, 0));
+        visit.setDoctor(doctorDao.findOne(3L));
+        visit.setPatient(patient);
+        patient.getVisits().add(visit);
+
+        patientDao.save(patient);
+        assertEquals(1, doctorCount(month, "3"));
+
+        visit.setDoctor(doctorDao.findOne(1L));
+        assertEquals(0, doctorCount(month, "3"));
+        assertEquals(1, doctorCount(month, "1"));
+
+        patientDao.delete(patient);
+        assertEquals(0, doctorCount(month, "1"));
+    }
+
+    @Test
+    void testDeleteAllPatientsEmptiesBuckets() {
+        patientDao.deleteAll();
+
+        List<VisitStatisticsTO> buckets = visitStatisticsDao.findByDimension(StatisticsDimension.SPECIALIZATION,
+                JANUARY_2024, YearMonth.of(2024, 12));
+        assertEquals(0, buckets.stream().mapToLong(VisitStatisticsTO::getVisitCount).sum());
+        assertEquals(0, patientDao.count());
+    }
+
+    private long doctorCount(YearMonth month, String doctorId) {
+        entityManager.flush();
+        return visitStatisticsDao.findByDimension(StatisticsDimension.DOCTOR, month, month).stream()
+                .filter(bucket -> doctorId.equals(bucket.getDimensionKey()))
+                .mapToLong(VisitStatisticsTO::getVisitCount)
+                .sum();
+    }
+}
@@ -0,0 +1,40 @@
+package com.jpacourse.rest;
+
+import com.jpacourse.persistence.dao.Dao;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@RunWith(SpringRunner.class)
+class BulkLookupControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testRejectsTooManyIdsWithBadRequest() throws Exception {
+        final String tooMany = ids(Dao.MAX_IDS_PER_LOOKUP + 1);
+
+        mockMvc.perform(get("/patients?ids=" + tooMany)).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/addresses?ids=" + tooMany)).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/patients?ids=" + ids(Dao.MAX_IDS_PER_LOOKUP))).andExpect(request().asyncStarted());
+        mockMvc.perform(get("/addresses?ids=" + ids(Dao.MAX_IDS_PER_LOOKUP))).andExpect(request().asyncStarted());
+    }
+
+    private static String ids(int count) {
+        return LongStream.rangeClosed(1, count).mapToObj(Long::toString).collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,37 @@
+package com.jpacourse.rest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@RunWith(SpringRunner.class)
+class DoctorControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testRejectsInvalidSlotArgumentsWithBadRequest() throws Exception {
+        mockMvc.perform(get("/doctor/1/free-slots?from=2024-01-01T09:00:00&to=2024-01-01T12:00:00&slotMinutes=0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/doctor/1/free-slots?from=2024-01-01T09:00:00&to=2099-01-01T12:00:00&slotMinutes=1"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/doctor/1/next-slot?from=2024-01-01T09:00:00&until=2024-01-01T08:00:00"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/doctor/1/visits?from=2020-01-01T00:00:00&to=2030-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/doctor/1/free-slots?from=2024-01-01T09:00:00&to=2024-01-01T12:00:00"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/doctor/1/visits?from=2024-01-01T00:00:00&to=2024-04-01T00:00:00"))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,51 @@
+package com.jpacourse.rest.async;
+
+import com.jpacourse.dto.DatabaseExecutorStatisticsTO;
+import com.jpacourse.rest.exception.ServerBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DatabaseExecutorTest {
+
+    private final DatabaseExecutor databaseExecutor = new DatabaseExecutor(1, 1, false);
+
+    @AfterEach
+    void shutDown() {
+        databaseExecutor.destroy();
+    }
+
+    @Test
+    void testRejectsWorkWhenThreadsAndQueueAreFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = databaseExecutor.supply(() -> {
+            awaitUninterruptibly(release);
+            return "running";
+        });
+        CompletableFuture<String> queued = databaseExecutor.supply(() -> "queued");
+
+        assertThrows(ServerBusyException.class, () -> databaseExecutor.supply(() -> "rejected"));
+
+        release.countDown();
+        assertEquals("running", running.get());
+        assertEquals("queued", queued.get());
+
+        DatabaseExecutorStatisticsTO statistics = databaseExecutor.getStatistics();
+        assertEquals(1, statistics.getPoolSize());
+        assertEquals(1, statistics.getQueueCapacity());
+        assertEquals(1, statistics.getRejectedTaskCount());
+        assertTrue(statistics.getMaxQueueWaitMillis() > 0.0);
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
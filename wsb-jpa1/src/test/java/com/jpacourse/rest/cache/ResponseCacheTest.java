@@ -0,0 +1,101 @@
+package com.jpacourse.rest.cache;
+
+import com.jpacourse.dto.AddressTO;
+import com.jpacourse.persistence.dao.EntityChangedEvent;
+import com.jpacourse.persistence.entity.AddressEntity;
+import com.jpacourse.persistence.entity.DoctorEntity;
+import com.jpacourse.persistence.entity.PatientEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@RunWith(SpringRunner.class)
+class ResponseCacheTest {
+
+    @Autowired
+    private ResponseCache responseCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Test
+    void testServesCachedBytesUntilTheVersionChanges() {
+        AtomicInteger serializations = new AtomicInteger();
+        Supplier<AddressTO> address = () -> {
+            serializations.incrementAndGet();
+            AddressTO addressTO = new AddressTO();
+            addressTO.setId(-100L);
+            addressTO.setCity("City");
+            return addressTO;
+        };
+
+        byte[] first = responseCache.get(AddressEntity.class, -100L, 0L, MediaType.APPLICATION_JSON, address);
+        byte[] second = responseCache.get(AddressEntity.class, -100L, 0L, MediaType.APPLICATION_JSON, address);
+        responseCache.get(AddressEntity.class, -100L, 1L, MediaType.APPLICATION_JSON, address);
+
+        assertSame(first, second);
+        assertEquals(2, serializations.get());
+    }
+
+    @Test
+    void testEvictsOnlyTheWrittenEntities() {
+        AtomicInteger serializations = new AtomicInteger();
+        Supplier<String> body = () -> "body-" + serializations.incrementAndGet();
+
+        responseCache.get(AddressEntity.class, -200L, 0L, MediaType.APPLICATION_JSON, body);
+        responseCache.get(AddressEntity.class, -201L, 0L, MediaType.APPLICATION_JSON, body);
+        responseCache.get(PatientEntity.class, -200L, "tag", MediaType.APPLICATION_JSON, body);
+
+        eventPublisher.publishEvent(EntityChangedEvent.of(AddressEntity.class, Collections.singletonList(-200L)));
+        responseCache.get(AddressEntity.class, -200L, 0L, MediaType.APPLICATION_JSON, body);
+        responseCache.get(AddressEntity.class, -201L, 0L, MediaType.APPLICATION_JSON, body);
+        responseCache.get(PatientEntity.class, -200L, "tag", MediaType.APPLICATION_JSON, body);
+        assertEquals(4, serializations.get());
+
+        eventPublisher.publishEvent(EntityChangedEvent.of(DoctorEntity.class, Collections.singletonList(1L)));
+        responseCache.get(PatientEntity.class, -200L, "tag", MediaType.APPLICATION_JSON, body);
+        assertEquals(4, serializations.get());
+
+        eventPublisher.publishEvent(EntityChangedEvent.ofAll(AddressEntity.class));
+        responseCache.get(AddressEntity.class, -200L, 0L, MediaType.APPLICATION_JSON, body);
+        responseCache.get(AddressEntity.class, -201L, 0L, MediaType.APPLICATION_JSON, body);
+        responseCache.get(PatientEntity.class, -200L, "tag", MediaType.APPLICATION_JSON, body);
+        assertEquals(6, serializations.get());
+    }
+
+    @Test
+    void testNeverServesBytesPutForAnOlderVersion() {
+        AtomicInteger serializations = new AtomicInteger();
+        Supplier<String> body = () -> "body-" + serializations.incrementAndGet();
+
+        // A reader that looked up the old tag puts its bytes after the write has committed and been evicted
+        eventPublisher.publishEvent(EntityChangedEvent.of(PatientEntity.class, Collections.singletonList(-300L)));
+        responseCache.get(PatientEntity.class, -300L, "old-tag", MediaType.APPLICATION_JSON, body);
+
+        byte[] current = responseCache.get(PatientEntity.class, -300L, "new-tag", MediaType.APPLICATION_JSON, body);
+        assertArrayEquals("\"body-2\"".getBytes(), current);
+        assertSame(current, responseCache.get(PatientEntity.class, -300L, "new-tag", MediaType.APPLICATION_JSON, body));
+        assertEquals(2, serializations.get());
+    }
+
+    @Test
+    void testNegotiatesBinaryEncodings() throws HttpMediaTypeNotAcceptableException {
+        assertEquals(MediaType.APPLICATION_JSON, responseCache.negotiate(null));
+        assertEquals(MediaType.APPLICATION_JSON, responseCache.negotiate("*/*"));
+        assertEquals(MediaType.APPLICATION_CBOR, responseCache.negotiate("application/cbor, application/json;q=0.5"));
+        assertEquals("x-jackson-smile", responseCache.negotiate("application/x-jackson-smile").getSubtype());
+        assertThrows(HttpMediaTypeNotAcceptableException.class, () -> responseCache.negotiate("text/html"));
+    }
+}
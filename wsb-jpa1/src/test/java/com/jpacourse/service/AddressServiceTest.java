@@ -1,6 +1,7 @@
 package com.jpacourse.service;
 
 import com.jpacourse.dto.AddressTO;
+import com.jpacourse.dto.BulkLookupTO;
 import com.jpacourse.persistence.dao.AddressDao;
 import com.jpacourse.persistence.entity.AddressEntity;
 import org.junit.jupiter.api.Test;
@@ -9,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.Arrays;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -42,4 +44,18 @@ class AddressServiceTest {
         assertTrue(result.isPresent());
         assertEquals("City", result.get().getCity());
     }
+
+    /**
+     * Test the {@link AddressService#findByIds(java.util.Collection)} method to ensure that existing addresses are returned
+     * in the requested order and that missing IDs are reported instead of failing the lookup.
+     */
+    @Test
+    void testFindAddressesByIds() {
+        BulkLookupTO<AddressTO> result = addressService.findByIds(Arrays.asList(2L, -1L, 1L, 2L));
+
+        assertEquals(2, result.getFound().size());
+        assertEquals(2L, result.getFound().get(0).getId());
+        assertEquals(1L, result.getFound().get(1).getId());
+        assertEquals(Arrays.asList(-1L), result.getMissingIds());
+    }
 }
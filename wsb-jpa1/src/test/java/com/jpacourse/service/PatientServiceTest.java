@@ -1,8 +1,9 @@
 package com.jpacourse.service;
 
 import com.jpacourse.dto.PatientTO;
+import com.jpacourse.dto.VisitTO;
 import com.jpacourse.persistence.dao.DoctorDao;
-import com.jpacourse.persistence.entity.VisitEntity;
+import com.jpacourse.persistence.dao.PatientDao;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,6 +11,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import javax.transaction.Transactional;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -29,6 +31,9 @@ class PatientServiceTest {
     @Autowired
     private DoctorDao doctorDao;
 
+    @Autowired
+    private PatientDao patientDao;
+
     /**
      * Test the {@link PatientService#deletePatient(Long)} method to ensure that when a patient is deleted:
      * 1. The patient's visits are also deleted (cascaded).
@@ -76,6 +81,7 @@ class PatientServiceTest {
 
         assertNotNull(patient.getAddress());
         assertEquals(6L, patient.getAddress().getId());
+        assertEquals(2, patient.getVisits().size());
     }
 
     /**
@@ -85,10 +91,28 @@ class PatientServiceTest {
      */
     @Test
     void testFindVisitsByPatientId_PatientFound() {
-        List<VisitEntity> visits = patientService.findVisitsByPatientId(1L);
+        List<VisitTO> visits = patientService.findVisitsByPatientId(1L);
 
         assertNotNull(visits, "The visits list should not be null.");
 
         assertEquals(2, visits.size(), "There should be exactly 2 visits.");
+        assertNotNull(visits.get(0).getDoctor(), "Each visit should carry its doctor.");
+    }
+
+    /**
+     * Test the {@link PatientService#exportAll(java.util.function.Consumer)} method to ensure that:
+     * 1. Every patient is passed to the consumer exactly once.
+     * 2. The exported patients carry their address and visits.
+     */
+    @Test
+    void testExportAllPassesEveryPatientWithVisits() {
+        List<PatientTO> exported = new ArrayList<>();
+
+        patientService.exportAll(exported::add);
+
+        assertEquals(patientDao.count(), exported.size());
+        PatientTO alice = exported.stream().filter(p -> p.getId() == 1L).findFirst().orElseThrow(AssertionError::new);
+        assertNotNull(alice.getAddress());
+        assertEquals(2, alice.getVisits().size());
     }
 }